@@ -1,24 +1,99 @@
 package com.musicinvestment.musicapp.config;
 
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Policy;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.actuate.metrics.cache.CacheMeterBinderProvider;
+import org.springframework.cache.Cache;
 import org.springframework.cache.CacheManager;
 import org.springframework.cache.annotation.EnableCaching;
-import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+import org.springframework.cache.caffeine.CaffeineCache;
+import org.springframework.cache.support.SimpleCacheManager;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+import org.springframework.data.redis.cache.RedisCacheConfiguration;
+import org.springframework.data.redis.cache.RedisCacheManager;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
 @Configuration
 @EnableCaching
 public class CacheConfig {
     private static final Logger logger = LoggerFactory.getLogger(CacheConfig.class);
 
+    // Caffeine specs per cache, overridable with cache.spec.<name>; stats are always recorded for actuator
+    private static final Map<String, String> DEFAULT_SPECS = new LinkedHashMap<>();
+    static {
+        DEFAULT_SPECS.put("financials", "maximumSize=2000,expireAfterWrite=60s");
+        DEFAULT_SPECS.put("prices", "maximumSize=2000,expireAfterWrite=30s");
+        DEFAULT_SPECS.put("pricesRaw", "maximumSize=2000,expireAfterWrite=30s");
+        DEFAULT_SPECS.put("volumes", "maximumSize=2000,expireAfterWrite=60s");
+        DEFAULT_SPECS.put("volumesRaw", "maximumSize=2000,expireAfterWrite=60s");
+        // Mappings only change through ArtistService, which evicts explicitly
+        DEFAULT_SPECS.put("contractAddresses", "maximumSize=5000,expireAfterWrite=24h");
+    }
+
+    // Backed by Redis as well when cache.redis.enabled=true; the Redis TTL follows the local one
+    private static final Set<String> SHARED_CACHES = Set.of("financials", "prices", "pricesRaw", "volumes", "volumesRaw", "contractAddresses");
+
     @Bean
-    public CacheManager cacheManager() {
-        ConcurrentMapCacheManager cacheManager = new ConcurrentMapCacheManager(
-            "financials", "prices", "volumes", "contractAddresses", "userFinancials", "pricesRaw", "volumesRaw"
-        );
-        logger.info("Initialized CacheManager with caches: {}", cacheManager.getCacheNames());
+    public CacheManager cacheManager(Environment environment,
+                                     ObjectProvider<CacheInvalidationBus> invalidationBus,
+                                     ObjectProvider<RedisConnectionFactory> redisConnectionFactory) {
+        Map<String, CaffeineCache> localCaches = new LinkedHashMap<>();
+        DEFAULT_SPECS.forEach((name, defaultSpec) -> {
+            String spec = environment.getProperty("cache.spec." + name, defaultSpec);
+            localCaches.put(name, new CaffeineCache(name, Caffeine.from(spec).recordStats().build()));
+            logger.info("Cache {}: {}", name, spec);
+        });
+
+        CacheInvalidationBus bus = invalidationBus.getIfAvailable();
+        RedisCacheManager remote = bus != null ? redisCacheManager(redisConnectionFactory.getObject(), localCaches,
+                environment.getProperty("cache.redis.key-prefix", "sounquity:cache:")) : null;
+        List<Cache> caches = new ArrayList<>();
+        localCaches.forEach((name, local) -> caches.add(remote != null && SHARED_CACHES.contains(name)
+                ? new TwoTierCache(local, remote.getCache(name), bus)
+                : local));
+
+        SimpleCacheManager cacheManager = new SimpleCacheManager();
+        cacheManager.setCaches(caches);
+        logger.info("Initialized CacheManager with caches: {}{}", localCaches.keySet(), remote != null ? ", shared through Redis: " + SHARED_CACHES : "");
         return cacheManager;
     }
-}
\ No newline at end of file
+
+    // Hit/miss/eviction statistics of a two-tier cache are those of its local Caffeine tier
+    @Bean
+    public CacheMeterBinderProvider<TwoTierCache> twoTierCacheMeterBinderProvider() {
+        return (cache, tags) -> new CaffeineCacheMetrics<>(cache.getLocal().getNativeCache(), cache.getName(), tags);
+    }
+
+    private RedisCacheManager redisCacheManager(RedisConnectionFactory connectionFactory, Map<String, CaffeineCache> localCaches,
+                                                String keyPrefix) {
+        RedisCacheConfiguration defaults = RedisCacheConfiguration.defaultCacheConfig(CacheConfig.class.getClassLoader())
+                .prefixCacheNameWith(keyPrefix);
+        Map<String, RedisCacheConfiguration> configurations = new HashMap<>();
+        for (String name : SHARED_CACHES) {
+            Duration ttl = localCaches.get(name).getNativeCache().policy().expireAfterWrite()
+                    .map(Policy.FixedExpiration::getExpiresAfter)
+                    .orElse(Duration.ZERO);
+            configurations.put(name, defaults.entryTtl(ttl));
+        }
+        RedisCacheManager manager = RedisCacheManager.builder(connectionFactory)
+                .cacheDefaults(defaults)
+                .withInitialCacheConfigurations(configurations)
+                .build();
+        manager.afterPropertiesSet();
+        return manager;
+    }
+}
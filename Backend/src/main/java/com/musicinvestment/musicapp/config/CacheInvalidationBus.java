@@ -0,0 +1,83 @@
+package com.musicinvestment.musicapp.config;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.data.redis.core.StringRedisTemplate;
+
+import java.util.UUID;
+
+/**
+ * Redis side of the shared caches. Artist cache versions are counters in Redis, so every instance
+ * stamps entries with the same numbers, and evictions, clears and version bumps are published on
+ * one pub/sub channel so the other instances drop their near-cache copies. Only created when
+ * cache.redis.enabled=true (see RedisCacheConfig).
+ */
+public class CacheInvalidationBus {
+
+    private static final Logger logger = LoggerFactory.getLogger(CacheInvalidationBus.class);
+    private static final String SEPARATOR = "|";
+
+    public enum Type { EVICT, CLEAR, VERSION }
+
+    // A message from another instance; for VERSION, name is the artist id and key the version
+    public record Message(Type type, String name, String key) {}
+
+    private final StringRedisTemplate redis;
+    private final String channel;
+    private final String versionKeyPrefix;
+    private final String instanceId = UUID.randomUUID().toString();
+
+    public CacheInvalidationBus(StringRedisTemplate redis, String channel, String keyPrefix) {
+        this.redis = redis;
+        this.channel = channel;
+        this.versionKeyPrefix = keyPrefix + "version:";
+    }
+
+    public String getChannel() {
+        return channel;
+    }
+
+    public long fetchVersion(String artistId) {
+        String version = redis.opsForValue().get(versionKeyPrefix + artistId);
+        return version != null ? Long.parseLong(version) : 0L;
+    }
+
+    public long incrementVersion(String artistId) {
+        Long version = redis.opsForValue().increment(versionKeyPrefix + artistId);
+        return version != null ? version : 0L;
+    }
+
+    public void publishEvict(String cacheName, Object key) {
+        publish(Type.EVICT, cacheName, String.valueOf(key));
+    }
+
+    public void publishClear(String cacheName) {
+        publish(Type.CLEAR, cacheName, "");
+    }
+
+    public void publishVersion(String artistId, long version) {
+        publish(Type.VERSION, artistId, Long.toString(version));
+    }
+
+    // Null for our own messages and for anything we cannot read
+    public Message parse(String payload) {
+        String[] parts = payload.split("\\" + SEPARATOR, 4);
+        if (parts.length != 4 || parts[0].equals(instanceId)) {
+            return null;
+        }
+        try {
+            return new Message(Type.valueOf(parts[1]), parts[2], parts[3]);
+        } catch (IllegalArgumentException e) {
+            logger.warn("Ignoring unknown cache invalidation message: {}", payload);
+            return null;
+        }
+    }
+
+    private void publish(Type type, String name, String key) {
+        try {
+            redis.convertAndSend(channel, String.join(SEPARATOR, instanceId, type.name(), name, key));
+        } catch (RuntimeException e) {
+            logger.warn("Could not publish cache invalidation {} {} {}: {}", type, name, key, e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,157 @@
+package com.musicinvestment.musicapp.config;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import okhttp3.Call;
+import okhttp3.Callback;
+import okhttp3.Headers;
+import okhttp3.MediaType;
+import okhttp3.OkHttpClient;
+import okhttp3.RequestBody;
+import okhttp3.ResponseBody;
+import org.web3j.protocol.core.BatchRequest;
+import org.web3j.protocol.core.BatchResponse;
+import org.web3j.protocol.core.Request;
+import org.web3j.protocol.core.Response;
+import org.web3j.protocol.exceptions.ClientConnectionException;
+import org.web3j.protocol.http.HttpService;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+
+/**
+ * HttpService whose async methods really are asynchronous. web3j's own sendAsync/sendBatchAsync
+ * run the blocking send() on a small shared executor; these go through OkHttp's enqueue instead,
+ * so no thread waits on the node while a request is in flight. Batches, blocking or not, pair
+ * responses with requests by id rather than by position.
+ */
+public class NonBlockingHttpService extends HttpService {
+
+    private static final MediaType JSON_MEDIA_TYPE = MediaType.parse("application/json; charset=utf-8");
+
+    private final OkHttpClient httpClient;
+    private final String url;
+
+    public NonBlockingHttpService(String url, OkHttpClient httpClient) {
+        super(url, httpClient);
+        this.httpClient = httpClient;
+        this.url = url;
+    }
+
+    @Override
+    public <T extends Response> CompletableFuture<T> sendAsync(Request request, Class<T> responseType) {
+        return postAsync(request).thenApply(body -> {
+            try {
+                return objectMapper.readValue(body, responseType);
+            } catch (IOException e) {
+                throw new CompletionException(e);
+            }
+        });
+    }
+
+    @Override
+    public BatchResponse sendBatch(BatchRequest batchRequest) throws IOException {
+        List<Request<?, ? extends Response<?>>> requests = batchRequest.getRequests();
+        if (requests.isEmpty()) {
+            return new BatchResponse(Collections.emptyList(), Collections.emptyList());
+        }
+        try (okhttp3.Response response = httpClient.newCall(httpRequest(requests)).execute();
+             ResponseBody body = response.body()) {
+            byte[] bytes = body != null ? body.bytes() : new byte[0];
+            if (!response.isSuccessful()) {
+                throw new ClientConnectionException("Invalid response received: " + response.code() + "; " + new String(bytes));
+            }
+            return toBatchResponse(requests, bytes);
+        }
+    }
+
+    @Override
+    public CompletableFuture<BatchResponse> sendBatchAsync(BatchRequest batchRequest) {
+        List<Request<?, ? extends Response<?>>> requests = batchRequest.getRequests();
+        if (requests.isEmpty()) {
+            return CompletableFuture.completedFuture(new BatchResponse(Collections.emptyList(), Collections.emptyList()));
+        }
+        return postAsync(requests).thenApply(body -> {
+            try {
+                return toBatchResponse(requests, body);
+            } catch (IOException e) {
+                throw new CompletionException(e);
+            }
+        });
+    }
+
+    // Servers may answer a batch in any order; match each response to its request by id
+    private BatchResponse toBatchResponse(List<Request<?, ? extends Response<?>>> requests, byte[] body) throws IOException {
+        JsonNode nodes = objectMapper.readTree(body);
+        if (!nodes.isArray()) {
+            throw new ClientConnectionException("Expected a JSON-RPC batch response array, got: " + nodes);
+        }
+        Map<Long, JsonNode> byId = new HashMap<>();
+        for (JsonNode node : nodes) {
+            byId.put(node.path("id").asLong(), node);
+        }
+        List<Response<?>> responses = new ArrayList<>(requests.size());
+        for (Request<?, ? extends Response<?>> request : requests) {
+            JsonNode node = byId.get(request.getId());
+            if (node == null) {
+                throw new ClientConnectionException("No response for batched request id " + request.getId());
+            }
+            responses.add(objectMapper.treeToValue(node, request.getResponseType()));
+        }
+        return new BatchResponse(requests, responses);
+    }
+
+    private okhttp3.Request httpRequest(Object payload) throws IOException {
+        return new okhttp3.Request.Builder()
+                .url(url)
+                .headers(Headers.of(getHeaders()))
+                .post(RequestBody.create(objectMapper.writeValueAsBytes(payload), JSON_MEDIA_TYPE))
+                .build();
+    }
+
+    private CompletableFuture<byte[]> postAsync(Object payload) {
+        CompletableFuture<byte[]> result = new CompletableFuture<>();
+        okhttp3.Request httpRequest;
+        try {
+            httpRequest = httpRequest(payload);
+        } catch (IOException e) {
+            result.completeExceptionally(e);
+            return result;
+        }
+
+        Call call = httpClient.newCall(httpRequest);
+        call.enqueue(new Callback() {
+            @Override
+            public void onFailure(Call failedCall, IOException e) {
+                result.completeExceptionally(e);
+            }
+
+            @Override
+            public void onResponse(Call completedCall, okhttp3.Response response) {
+                try (response; ResponseBody body = response.body()) {
+                    byte[] bytes = body != null ? body.bytes() : new byte[0];
+                    if (!response.isSuccessful()) {
+                        result.completeExceptionally(new ClientConnectionException(
+                                "Invalid response received: " + response.code() + "; " + new String(bytes)));
+                    } else {
+                        result.complete(bytes);
+                    }
+                } catch (IOException e) {
+                    result.completeExceptionally(e);
+                }
+            }
+        });
+        // Cancelling the future (e.g. a timed-out MVC request) cancels the HTTP call
+        result.whenComplete((bytes, error) -> {
+            if (result.isCancelled()) {
+                call.cancel();
+            }
+        });
+        return result;
+    }
+}
@@ -0,0 +1,72 @@
+package com.musicinvestment.musicapp.config;
+
+import com.musicinvestment.musicapp.service.ArtistCacheService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Shared Redis tier for the financials, price, volume and contract address caches, for running
+ * more than one backend instance. Off by default; with cache.redis.enabled=true CacheConfig puts a
+ * TwoTierCache in front of each shared cache and this listener applies the other instances'
+ * invalidations locally.
+ */
+@Configuration
+@ConditionalOnProperty(name = "cache.redis.enabled", havingValue = "true")
+public class RedisCacheConfig {
+
+    private static final Logger logger = LoggerFactory.getLogger(RedisCacheConfig.class);
+
+    @Bean
+    public CacheInvalidationBus cacheInvalidationBus(
+            StringRedisTemplate stringRedisTemplate,
+            @Value("${cache.redis.channel:sounquity:cache-invalidation}") String channel,
+            @Value("${cache.redis.key-prefix:sounquity:cache:}") String keyPrefix) {
+        return new CacheInvalidationBus(stringRedisTemplate, channel, keyPrefix);
+    }
+
+    @Bean
+    public RedisMessageListenerContainer cacheInvalidationListener(RedisConnectionFactory connectionFactory,
+                                                                   CacheInvalidationBus invalidationBus,
+                                                                   CacheManager cacheManager,
+                                                                   ArtistCacheService artistCacheService) {
+        RedisMessageListenerContainer container = new RedisMessageListenerContainer();
+        container.setConnectionFactory(connectionFactory);
+        container.addMessageListener((message, pattern) -> {
+            CacheInvalidationBus.Message received = invalidationBus.parse(new String(message.getBody(), StandardCharsets.UTF_8));
+            if (received != null) {
+                apply(received, cacheManager, artistCacheService);
+            }
+        }, new ChannelTopic(invalidationBus.getChannel()));
+        logger.info("Listening for cache invalidations on Redis channel {}", invalidationBus.getChannel());
+        return container;
+    }
+
+    private void apply(CacheInvalidationBus.Message message, CacheManager cacheManager, ArtistCacheService artistCacheService) {
+        switch (message.type()) {
+            case VERSION -> artistCacheService.advanceVersion(message.name(), Long.parseLong(message.key()));
+            case EVICT, CLEAR -> {
+                Cache cache = cacheManager.getCache(message.name());
+                if (cache instanceof TwoTierCache twoTier) {
+                    if (message.type() == CacheInvalidationBus.Type.EVICT) {
+                        twoTier.evictLocal(message.key());
+                    } else {
+                        twoTier.clearLocal();
+                    }
+                }
+            }
+        }
+        logger.debug("Applied remote cache invalidation {} {} {}", message.type(), message.name(), message.key());
+    }
+}
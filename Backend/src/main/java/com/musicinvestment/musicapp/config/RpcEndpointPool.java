@@ -0,0 +1,314 @@
+package com.musicinvestment.musicapp.config;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.reactivex.Flowable;
+import okhttp3.HttpUrl;
+import okhttp3.OkHttpClient;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.web3j.protocol.Web3jService;
+import org.web3j.protocol.core.BatchRequest;
+import org.web3j.protocol.core.BatchResponse;
+import org.web3j.protocol.core.Request;
+import org.web3j.protocol.core.Response;
+import org.web3j.protocol.core.methods.response.EthBlockNumber;
+import org.web3j.protocol.exceptions.ClientConnectionException;
+import org.web3j.protocol.websocket.events.Notification;
+
+import java.io.IOException;
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+/**
+ * Web3jService over several JSON-RPC endpoints. Reads go to the healthy endpoint with the lowest
+ * observed latency and fail over to the next one on transport errors. Each endpoint has a circuit
+ * breaker that opens after consecutive failures; after a cool-down a single trial request is let
+ * through (half-open) and its outcome closes or re-opens the circuit.
+ * Log polling (eth_blockNumber + eth_getLogs) stays pinned to one endpoint so the head and the
+ * logs come from the same node; the pin moves only when that endpoint's circuit opens.
+ * Background health checks keep latency and block height fresh even for idle endpoints.
+ */
+public class RpcEndpointPool implements Web3jService {
+
+    private static final Logger logger = LoggerFactory.getLogger(RpcEndpointPool.class);
+    private static final double LATENCY_EWMA_ALPHA = 0.2;
+    private static final Set<String> PINNED_METHODS = Set.of(
+            "eth_blockNumber", "eth_getLogs", "eth_newFilter", "eth_getFilterChanges", "eth_getFilterLogs", "eth_uninstallFilter");
+
+    private final List<Endpoint> endpoints;
+    private final int failureThreshold;
+    private final long openMillis;
+    private final long maxBlockLag;
+    private final ScheduledExecutorService healthChecker;
+    private volatile Endpoint pinned;
+
+    public RpcEndpointPool(List<String> urls, OkHttpClient httpClient, int failureThreshold, long openMillis,
+                           long maxBlockLag, long healthCheckIntervalMs, MeterRegistry meterRegistry) {
+        if (urls.isEmpty()) {
+            throw new IllegalArgumentException("At least one RPC endpoint URL is required");
+        }
+        this.failureThreshold = failureThreshold;
+        this.openMillis = openMillis;
+        this.maxBlockLag = maxBlockLag;
+        List<Endpoint> list = new ArrayList<>();
+        for (int i = 0; i < urls.size(); i++) {
+            list.add(new Endpoint(urls.get(i), i, new NonBlockingHttpService(urls.get(i), httpClient), meterRegistry));
+        }
+        this.endpoints = List.copyOf(list);
+        this.pinned = endpoints.get(0);
+
+        this.healthChecker = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "rpc-health-check");
+            t.setDaemon(true);
+            return t;
+        });
+        if (healthCheckIntervalMs > 0) {
+            healthChecker.scheduleWithFixedDelay(this::checkHealth, 0, healthCheckIntervalMs, TimeUnit.MILLISECONDS);
+        }
+        logger.info("RPC endpoint pool: {} endpoints {}, failureThreshold={}, openMs={}",
+                endpoints.size(), endpoints.stream().map(e -> e.name).toList(), failureThreshold, openMillis);
+    }
+
+    @Override
+    public <T extends Response> T send(Request request, Class<T> responseType) throws IOException {
+        return attempt(route(request.getMethod()), service -> service.send(request, responseType));
+    }
+
+    @Override
+    public <T extends Response> CompletableFuture<T> sendAsync(Request request, Class<T> responseType) {
+        return attemptAsync(route(request.getMethod()), 0, endpoint -> endpoint.service.sendAsync(request, responseType));
+    }
+
+    @Override
+    public BatchResponse sendBatch(BatchRequest batchRequest) throws IOException {
+        return attempt(route(batchMethod(batchRequest)), service -> service.sendBatch(batchRequest));
+    }
+
+    @Override
+    public CompletableFuture<BatchResponse> sendBatchAsync(BatchRequest batchRequest) {
+        return attemptAsync(route(batchMethod(batchRequest)), 0, endpoint -> endpoint.service.sendBatchAsync(batchRequest));
+    }
+
+    @Override
+    public <T extends Notification<?>> Flowable<T> subscribe(Request request, String unsubscribeMethod, Class<T> responseType) {
+        throw new UnsupportedOperationException("Pub/sub subscriptions are not supported over HTTP endpoints");
+    }
+
+    @Override
+    public void close() throws IOException {
+        healthChecker.shutdownNow();
+        for (Endpoint endpoint : endpoints) {
+            endpoint.service.close();
+        }
+    }
+
+    private <R> R attempt(List<Endpoint> candidates, BlockingCall<R> call) throws IOException {
+        IOException lastError = null;
+        for (Endpoint endpoint : candidates) {
+            Permit permit = endpoint.tryAcquire();
+            if (permit == Permit.DENIED) {
+                continue;
+            }
+            long start = System.nanoTime();
+            try {
+                R response = call.send(endpoint.service);
+                endpoint.onSuccess(System.nanoTime() - start);
+                return response;
+            } catch (IOException | ClientConnectionException e) {
+                endpoint.onFailure(System.nanoTime() - start, e);
+                lastError = e instanceof IOException io ? io : new IOException(e.getMessage(), e);
+            } finally {
+                endpoint.release(permit);
+            }
+        }
+        throw lastError != null ? lastError : new IOException("No RPC endpoint available");
+    }
+
+    private <R> CompletableFuture<R> attemptAsync(List<Endpoint> candidates, int index, Function<Endpoint, CompletableFuture<R>> call) {
+        if (index >= candidates.size()) {
+            return CompletableFuture.failedFuture(new IOException("No RPC endpoint available"));
+        }
+        Endpoint endpoint = candidates.get(index);
+        Permit permit = endpoint.tryAcquire();
+        if (permit == Permit.DENIED) {
+            return attemptAsync(candidates, index + 1, call);
+        }
+        long start = System.nanoTime();
+        return call.apply(endpoint).handle((response, error) -> {
+            Throwable cause = error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+            if (error == null) {
+                endpoint.onSuccess(System.nanoTime() - start);
+            } else if (cause instanceof IOException || cause instanceof ClientConnectionException) {
+                endpoint.onFailure(System.nanoTime() - start, cause);
+            }
+            endpoint.release(permit);
+            if (error == null) {
+                return CompletableFuture.completedFuture(response);
+            }
+            if (!(cause instanceof IOException || cause instanceof ClientConnectionException)) {
+                return CompletableFuture.<R>failedFuture(cause);
+            }
+            if (index + 1 < candidates.size()) {
+                return attemptAsync(candidates, index + 1, call);
+            }
+            return CompletableFuture.<R>failedFuture(cause);
+        }).thenCompose(Function.identity());
+    }
+
+    // Healthy endpoints by latency, then the rest (all circuits open means try them anyway)
+    private List<Endpoint> route(String method) {
+        long now = System.currentTimeMillis();
+        long bestBlock = endpoints.stream().mapToLong(e -> e.blockNumber).max().orElse(0);
+        List<Endpoint> ordered = new ArrayList<>(endpoints);
+        ordered.sort(Comparator
+                .comparing((Endpoint e) -> !e.isAvailable(now, bestBlock))
+                .thenComparingDouble(e -> e.latencyMs));
+
+        if (PINNED_METHODS.contains(method)) {
+            Endpoint current = pinned;
+            if (!current.isAvailable(now, bestBlock)) {
+                Endpoint next = ordered.get(0);
+                if (next != current) {
+                    logger.warn("Moving log polling from RPC endpoint {} to {}", current.name, next.name);
+                    pinned = next;
+                    current = next;
+                }
+            }
+            ordered.remove(current);
+            ordered.add(0, current);
+        }
+        return ordered;
+    }
+
+    private String batchMethod(BatchRequest batchRequest) {
+        List<Request<?, ? extends Response<?>>> requests = batchRequest.getRequests();
+        return requests.isEmpty() ? "" : requests.get(0).getMethod();
+    }
+
+    // Completes once every endpoint has answered or failed
+    CompletableFuture<Void> checkHealth() {
+        List<CompletableFuture<?>> checks = new ArrayList<>();
+        for (Endpoint endpoint : endpoints) {
+            long start = System.nanoTime();
+            checks.add(new Request<>("eth_blockNumber", List.of(), endpoint.service, EthBlockNumber.class)
+                    .sendAsync()
+                    .handle((response, error) -> {
+                        if (error != null || response.hasError()) {
+                            endpoint.onFailure(System.nanoTime() - start,
+                                    error != null ? error : new IOException(response.getError().getMessage()));
+                        } else {
+                            BigInteger block = response.getBlockNumber();
+                            endpoint.blockNumber = block.longValue();
+                            endpoint.onSuccess(System.nanoTime() - start);
+                        }
+                        return null;
+                    }));
+        }
+        return CompletableFuture.allOf(checks.toArray(CompletableFuture[]::new));
+    }
+
+    private enum Permit { GRANTED, PROBE, DENIED }
+
+    @FunctionalInterface
+    private interface BlockingCall<R> {
+        R send(NonBlockingHttpService service) throws IOException;
+    }
+
+    private final class Endpoint {
+        private final String name;
+        private final NonBlockingHttpService service;
+        private final AtomicInteger consecutiveFailures = new AtomicInteger();
+        private final AtomicBoolean probing = new AtomicBoolean();
+        private final Timer successTimer;
+        private final Timer failureTimer;
+        // Unknown latency keeps configuration order: earlier URLs are preferred until measured
+        private volatile double latencyMs;
+        private volatile boolean measured;
+        private volatile long openUntil;
+        private volatile long blockNumber;
+
+        private Endpoint(String url, int position, NonBlockingHttpService service, MeterRegistry meterRegistry) {
+            HttpUrl parsed = HttpUrl.parse(url);
+            // Host only: provider URLs often carry an API key in the path or query
+            this.name = parsed != null ? parsed.host() + ":" + parsed.port() : "endpoint-" + position;
+            this.service = service;
+            this.latencyMs = position * 0.001;
+            if (meterRegistry != null) {
+                successTimer = Timer.builder("web3j.rpc.requests").tag("endpoint", name).tag("outcome", "success").register(meterRegistry);
+                failureTimer = Timer.builder("web3j.rpc.requests").tag("endpoint", name).tag("outcome", "error").register(meterRegistry);
+                Gauge.builder("web3j.rpc.endpoint.latency", this, e -> e.latencyMs).tag("endpoint", name)
+                        .baseUnit("milliseconds").description("Smoothed round-trip latency").register(meterRegistry);
+                Gauge.builder("web3j.rpc.endpoint.circuit.open", this, e -> e.openUntil > System.currentTimeMillis() ? 1 : 0)
+                        .tag("endpoint", name).register(meterRegistry);
+                Gauge.builder("web3j.rpc.endpoint.block", this, e -> e.blockNumber).tag("endpoint", name).register(meterRegistry);
+            } else {
+                successTimer = null;
+                failureTimer = null;
+            }
+        }
+
+        // Closed, or half-open with no trial in flight, and not lagging
+        private boolean isAvailable(long now, long bestBlock) {
+            boolean lagging = blockNumber > 0 && bestBlock - blockNumber > maxBlockLag;
+            long until = openUntil;
+            return until <= now && (until == 0 || !probing.get()) && !lagging;
+        }
+
+        // Half-open lets exactly one caller through until the trial's outcome closes or re-opens the circuit.
+        // Closed always passes, and so does open: route() only offers open endpoints as a last resort.
+        private Permit tryAcquire() {
+            long until = openUntil;
+            if (until == 0 || until > System.currentTimeMillis()) {
+                return Permit.GRANTED;
+            }
+            return probing.compareAndSet(false, true) ? Permit.PROBE : Permit.DENIED;
+        }
+
+        private void release(Permit permit) {
+            if (permit == Permit.PROBE) {
+                probing.set(false);
+            }
+        }
+
+        private void onSuccess(long elapsedNanos) {
+            double elapsedMs = elapsedNanos / 1_000_000.0;
+            latencyMs = measured ? LATENCY_EWMA_ALPHA * elapsedMs + (1 - LATENCY_EWMA_ALPHA) * latencyMs : elapsedMs;
+            measured = true;
+            if (openUntil != 0) {
+                logger.info("RPC endpoint {} recovered, closing circuit", name);
+            }
+            consecutiveFailures.set(0);
+            openUntil = 0;
+            if (successTimer != null) {
+                successTimer.record(elapsedNanos, TimeUnit.NANOSECONDS);
+            }
+        }
+
+        private void onFailure(long elapsedNanos, Throwable error) {
+            int failures = consecutiveFailures.incrementAndGet();
+            if (failures >= failureThreshold) {
+                openUntil = System.currentTimeMillis() + openMillis;
+                logger.warn("RPC endpoint {} failed {} times in a row, circuit open for {} ms: {}",
+                        name, failures, openMillis, error.getMessage());
+            } else {
+                logger.debug("RPC endpoint {} failed ({} in a row): {}", name, failures, error.getMessage());
+            }
+            if (failureTimer != null) {
+                failureTimer.record(elapsedNanos, TimeUnit.NANOSECONDS);
+            }
+        }
+    }
+}
@@ -75,7 +75,7 @@ public class SecurityConfig {
         ));
         config.setAllowedMethods(List.of("GET", "POST", "PUT", "DELETE", "OPTIONS"));
         config.setAllowedHeaders(List.of("*"));
-        config.setExposedHeaders(List.of("Authorization"));
+        config.setExposedHeaders(List.of("Authorization", "X-Next-Cursor", "X-Prev-Cursor"));
         config.setAllowCredentials(true);
         config.setMaxAge(3600L);
 
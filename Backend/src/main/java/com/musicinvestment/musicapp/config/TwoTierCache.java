@@ -0,0 +1,129 @@
+package com.musicinvestment.musicapp.config;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.cache.Cache;
+import org.springframework.cache.caffeine.CaffeineCache;
+
+import java.util.concurrent.Callable;
+
+/**
+ * Local Caffeine near-cache in front of a shared Redis cache. Reads try the local copy, then
+ * Redis, and keep what Redis returned locally; writes go to both. Evictions and clears go to both
+ * and are broadcast so other instances drop their local copies. Redis errors degrade to local-only
+ * caching instead of failing the request.
+ */
+public class TwoTierCache implements Cache {
+
+    private static final Logger logger = LoggerFactory.getLogger(TwoTierCache.class);
+
+    private final CaffeineCache local;
+    private final Cache remote;
+    private final CacheInvalidationBus invalidationBus;
+
+    public TwoTierCache(CaffeineCache local, Cache remote, CacheInvalidationBus invalidationBus) {
+        this.local = local;
+        this.remote = remote;
+        this.invalidationBus = invalidationBus;
+    }
+
+    public CaffeineCache getLocal() {
+        return local;
+    }
+
+    @Override
+    public String getName() {
+        return local.getName();
+    }
+
+    @Override
+    public Object getNativeCache() {
+        return local.getNativeCache();
+    }
+
+    @Override
+    public ValueWrapper get(Object key) {
+        ValueWrapper value = local.get(key);
+        if (value == null) {
+            try {
+                value = remote.get(key);
+            } catch (RuntimeException e) {
+                logger.warn("Redis read of {} {} failed: {}", getName(), key, e.getMessage());
+                return null;
+            }
+            if (value != null) {
+                local.put(key, value.get());
+            }
+        }
+        return value;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> T get(Object key, Class<T> type) {
+        ValueWrapper wrapper = get(key);
+        Object value = wrapper != null ? wrapper.get() : null;
+        if (value != null && type != null && !type.isInstance(value)) {
+            throw new IllegalStateException("Cached value is not of required type [" + type.getName() + "]: " + value);
+        }
+        return (T) value;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> T get(Object key, Callable<T> valueLoader) {
+        ValueWrapper wrapper = get(key);
+        if (wrapper != null) {
+            return (T) wrapper.get();
+        }
+        T value;
+        try {
+            value = valueLoader.call();
+        } catch (Exception e) {
+            throw new ValueRetrievalException(key, valueLoader, e);
+        }
+        put(key, value);
+        return value;
+    }
+
+    @Override
+    public void put(Object key, Object value) {
+        local.put(key, value);
+        try {
+            remote.put(key, value);
+        } catch (RuntimeException e) {
+            logger.warn("Redis write of {} {} failed: {}", getName(), key, e.getMessage());
+        }
+    }
+
+    @Override
+    public void evict(Object key) {
+        local.evict(key);
+        try {
+            remote.evict(key);
+        } catch (RuntimeException e) {
+            logger.warn("Redis evict of {} {} failed: {}", getName(), key, e.getMessage());
+        }
+        invalidationBus.publishEvict(getName(), key);
+    }
+
+    @Override
+    public void clear() {
+        local.clear();
+        try {
+            remote.clear();
+        } catch (RuntimeException e) {
+            logger.warn("Redis clear of {} failed: {}", getName(), e.getMessage());
+        }
+        invalidationBus.publishClear(getName());
+    }
+
+    // Applies another instance's eviction to the local tier only
+    public void evictLocal(Object key) {
+        local.evict(key);
+    }
+
+    public void clearLocal() {
+        local.clear();
+    }
+}
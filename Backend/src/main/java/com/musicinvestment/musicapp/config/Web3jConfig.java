@@ -1,31 +1,110 @@
 package com.musicinvestment.musicapp.config;
 
 import com.musicinvestment.musicapp.contract.ArtistSharesFactory;
+import io.micrometer.core.instrument.MeterRegistry;
+import okhttp3.ConnectionPool;
+import okhttp3.Dispatcher;
+import okhttp3.OkHttpClient;
+import okhttp3.Protocol;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.web3j.crypto.Credentials;
 import org.web3j.protocol.Web3j;
-import org.web3j.protocol.http.HttpService;
 import org.web3j.tx.FastRawTransactionManager;
 import org.web3j.tx.TransactionManager;
 import org.web3j.tx.gas.DefaultGasProvider;
 
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
 @Configuration
 public class Web3jConfig {
 
     @Value("${web3j.node-url}")
     private String nodeUrl;
 
+    // Optional comma-separated list; when empty, web3j.node-url is the only endpoint
+    @Value("${web3j.node-urls:}")
+    private String nodeUrls;
+
+    @Value("${web3j.pool.failure-threshold:3}")
+    private int failureThreshold;
+
+    @Value("${web3j.pool.open-ms:30000}")
+    private long openMs;
+
+    @Value("${web3j.pool.max-block-lag:5}")
+    private long maxBlockLag;
+
+    @Value("${web3j.pool.health-check-interval-ms:15000}")
+    private long healthCheckIntervalMs;
+
     @Value("${web3j.private-key}")
     private String privateKey;
 
     @Value("${contract.artist-shares-factory-address}")
     private String factoryAddress;
 
+    @Value("${web3j.http.max-idle-connections:20}")
+    private int maxIdleConnections;
+
+    @Value("${web3j.http.keep-alive-seconds:300}")
+    private long keepAliveSeconds;
+
+    @Value("${web3j.http.max-requests:128}")
+    private int maxRequests;
+
+    @Value("${web3j.http.max-requests-per-host:64}")
+    private int maxRequestsPerHost;
+
+    @Value("${web3j.http.connect-timeout-ms:5000}")
+    private long connectTimeoutMs;
+
+    @Value("${web3j.http.read-timeout-ms:15000}")
+    private long readTimeoutMs;
+
+    @Value("${web3j.http.call-timeout-ms:20000}")
+    private long callTimeoutMs;
+
+    // Shared by the blocking and async paths so both reuse the same pooled keep-alive connections
+    @Bean
+    public OkHttpClient web3jHttpClient() {
+        Dispatcher dispatcher = new Dispatcher();
+        dispatcher.setMaxRequests(maxRequests);
+        // OkHttp defaults to 5 concurrent async calls per host, far too few when every RPC goes to one node
+        dispatcher.setMaxRequestsPerHost(maxRequestsPerHost);
+        return new OkHttpClient.Builder()
+                .connectionPool(new ConnectionPool(maxIdleConnections, keepAliveSeconds, TimeUnit.SECONDS))
+                .dispatcher(dispatcher)
+                .protocols(List.of(Protocol.HTTP_2, Protocol.HTTP_1_1))
+                .connectTimeout(connectTimeoutMs, TimeUnit.MILLISECONDS)
+                .readTimeout(readTimeoutMs, TimeUnit.MILLISECONDS)
+                .writeTimeout(readTimeoutMs, TimeUnit.MILLISECONDS)
+                .callTimeout(callTimeoutMs, TimeUnit.MILLISECONDS)
+                .retryOnConnectionFailure(true)
+                .build();
+    }
+
+    @Bean
+    public RpcEndpointPool rpcEndpointPool(OkHttpClient web3jHttpClient, ObjectProvider<MeterRegistry> meterRegistry) {
+        List<String> urls = Arrays.stream(nodeUrls.split(","))
+                .map(String::trim)
+                .filter(url -> !url.isEmpty())
+                .collect(Collectors.toList());
+        if (urls.isEmpty()) {
+            urls = List.of(nodeUrl);
+        }
+        return new RpcEndpointPool(urls, web3jHttpClient, failureThreshold, openMs, maxBlockLag,
+                healthCheckIntervalMs, meterRegistry.getIfAvailable());
+    }
+
     @Bean
-    public Web3j web3j() {
-        return Web3j.build(new HttpService(nodeUrl));
+    public Web3j web3j(RpcEndpointPool rpcEndpointPool) {
+        return Web3j.build(rpcEndpointPool);
     }
 
     @Bean
@@ -1,6 +1,7 @@
 package com.musicinvestment.musicapp.controller;
 
 import com.musicinvestment.musicapp.dto.ArtistSharesDto;
+import com.musicinvestment.musicapp.dto.CandleSeries;
 import com.musicinvestment.musicapp.model.Artist;
 import com.musicinvestment.musicapp.model.CandleData;
 import com.musicinvestment.musicapp.model.Timeframe;
@@ -11,9 +12,14 @@ import com.musicinvestment.musicapp.service.CandleDataService;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
@@ -163,9 +169,6 @@ public class ArtistController {
             artistService.updateContractAddress(spotifyId, contractAddress);
             logger.info("Contract address updated successfully for artist ID: {}", spotifyId);
 
-            // This will now work!
-            contractService.evictContractAddressCache(spotifyId);
-
             blockchainSyncService.subscribeToNewContract(contractAddress);
             logger.info("Subscribed to events for new contract: {}", contractAddress);
 
@@ -188,19 +191,26 @@ public class ArtistController {
     }
 
     @GetMapping("/candleData")
-    public ResponseEntity<List<CandleData>> getCandleData(
+    public ResponseEntity<?> getCandleData(
             @RequestParam String artistId,
-            @RequestParam String timeframe) {
+            @RequestParam String timeframe,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime before,
+            @RequestParam(required = false) Integer limit,
+            @RequestParam(required = false) String format,
+            @RequestHeader(value = HttpHeaders.ACCEPT, required = false) String accept) {
+        String responseFormat = resolveCandleFormat(format, accept);
         if (artistId == null || artistId.trim().isEmpty() || timeframe == null || timeframe.trim().isEmpty()) {
             logger.warn("Invalid parameters for candleData: artistId={}, timeframe={}", artistId, timeframe);
-            return ResponseEntity.badRequest().body(List.of());  // empty list instead of null/500
+            return candleResponse(HttpStatus.BAD_REQUEST, artistId, timeframe, List.of(), responseFormat);  // empty list instead of null/500
         }
 
         logger.info("Fetching candle data for artist ID: {}, timeframe: {}", artistId, timeframe);
         
         try {
             Timeframe tf = Timeframe.fromValue(timeframe.toUpperCase());
-            List<CandleData> candleData = candleDataService.getCandleDataByArtistIdAndTimeframe(artistId, tf);
+            List<CandleData> candleData = candleDataService.getCandles(artistId, tf, from, to, before, limit);
             
             // If no data → return empty list instead of crashing
             if (candleData == null) {
@@ -208,18 +218,47 @@ public class ArtistController {
             }
             
             logger.info("Returning {} candles for artistId={}, timeframe={}", candleData.size(), artistId, timeframe);
-            return ResponseEntity.ok(candleData);
+            return candleResponse(HttpStatus.OK, artistId, tf.getValue(), candleData, responseFormat);
         } catch (IllegalArgumentException e) {
             // Invalid timeframe
             logger.warn("Invalid timeframe requested: {}", timeframe, e);
-            return ResponseEntity.badRequest().body(List.of());
+            return candleResponse(HttpStatus.BAD_REQUEST, artistId, timeframe, List.of(), responseFormat);
         } catch (Exception e) {
             logger.error("Error fetching candle data for {} / {}: {}", artistId, timeframe, e.getMessage(), e);
             // Return empty instead of 500 - frontend can show "no data yet"
-            return ResponseEntity.ok(List.of());
+            return candleResponse(HttpStatus.OK, artistId, timeframe, List.of(), responseFormat);
         }
     }
 
+    // "json" (entity list, the default), "columnar" or "binary"; the query parameter wins over Accept
+    private String resolveCandleFormat(String format, String accept) {
+        if (format != null && !format.isBlank()) {
+            return format.trim().toLowerCase();
+        }
+        if (accept != null) {
+            if (accept.contains(CandleSeries.JSON_MEDIA_TYPE)) {
+                return "columnar";
+            }
+            if (accept.contains(CandleSeries.BINARY_MEDIA_TYPE) || accept.contains(MediaType.APPLICATION_OCTET_STREAM_VALUE)) {
+                return "binary";
+            }
+        }
+        return "json";
+    }
+
+    private ResponseEntity<?> candleResponse(HttpStatus status, String artistId, String timeframe,
+                                             List<CandleData> candles, String format) {
+        return switch (format) {
+            case "columnar" -> ResponseEntity.status(status)
+                    .contentType(MediaType.parseMediaType(CandleSeries.JSON_MEDIA_TYPE))
+                    .body(CandleSeries.from(artistId, timeframe, candles));
+            case "binary" -> ResponseEntity.status(status)
+                    .contentType(MediaType.parseMediaType(CandleSeries.BINARY_MEDIA_TYPE))
+                    .body(CandleSeries.from(artistId, timeframe, candles).toBinary());
+            default -> ResponseEntity.status(status).body(candles);
+        };
+    }
+
     private String extractArtistIdFromSpotifyLink(String link) {
         logger.info("Extracting artist ID from Spotify link: {}", link);
         if (link == null || link.trim().isEmpty()) {
@@ -1,9 +1,14 @@
 package com.musicinvestment.musicapp.controller;
 
+import com.musicinvestment.musicapp.dto.BackfillProgress;
 import com.musicinvestment.musicapp.model.Financials;
+import com.musicinvestment.musicapp.model.Timeframe;
 import com.musicinvestment.musicapp.service.BlockchainSyncService;
+import com.musicinvestment.musicapp.service.CandleDataService;
 import com.musicinvestment.musicapp.service.ContractService;
+import com.musicinvestment.musicapp.service.HistoricalBackfillService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.cache.Cache;
@@ -11,7 +16,11 @@ import org.springframework.cache.CacheManager;
 import java.math.BigDecimal;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import java.time.LocalDateTime;
+import java.util.EnumSet;
 import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
 import java.util.stream.Collectors;
 
 @RestController
@@ -23,14 +32,20 @@ public class BlockchainController {
     private final BlockchainSyncService blockchainSyncService;
     private final ContractService contractService;
     private final CacheManager cacheManager;
+    private final HistoricalBackfillService historicalBackfillService;
+    private final CandleDataService candleDataService;
 
     @Autowired
     public BlockchainController(BlockchainSyncService blockchainSyncService, 
                                ContractService contractService, 
-                               CacheManager cacheManager) {
+                               CacheManager cacheManager,
+                               HistoricalBackfillService historicalBackfillService,
+                               CandleDataService candleDataService) {
         this.blockchainSyncService = blockchainSyncService;
         this.contractService = contractService;
         this.cacheManager = cacheManager;
+        this.historicalBackfillService = historicalBackfillService;
+        this.candleDataService = candleDataService;
     }
 
     @GetMapping("/current-price/{artistId}")
@@ -54,12 +69,10 @@ public class BlockchainController {
     }
 
     @GetMapping("/financials/{artistId}")
-    public ResponseEntity<Financials> getFinancials(@PathVariable String artistId) {
-        try {
-            Financials financials = blockchainSyncService.computeFinancials(artistId);
-            return ResponseEntity.ok(financials);
-        } catch (Exception e) {
-            return ResponseEntity.status(500).body(new Financials(
+    public CompletableFuture<ResponseEntity<Financials>> getFinancials(@PathVariable String artistId) {
+        return blockchainSyncService.computeFinancialsAsync(artistId)
+            .thenApply(ResponseEntity::ok)
+            .exceptionally(e -> ResponseEntity.status(500).body(new Financials(
                 "N/A", // currentPrice
                 "N/A", // volume24h
                 "N/A", // marketCap
@@ -68,8 +81,7 @@ public class BlockchainController {
                 0L,    // availableSupply
                 null,  // nextReset
                 0.0
-            ));
-        }
+            )));
     }
 
     @GetMapping("/financials/by-user/{userAddress}")
@@ -84,15 +96,10 @@ public class BlockchainController {
     }
 
     @GetMapping("/batch-financials")
-    public ResponseEntity<List<Financials>> getBatchFinancials(@RequestParam List<String> artistIds) {
-        try {
-            List<Financials> financialsList = artistIds.stream()
-                    .map(blockchainSyncService::computeFinancials)
-                    .collect(Collectors.toList());
-            return ResponseEntity.ok(financialsList);
-        } catch (Exception e) {
-            return ResponseEntity.status(500).body(List.of());
-        }
+    public CompletableFuture<ResponseEntity<List<Financials>>> getBatchFinancials(@RequestParam List<String> artistIds) {
+        return blockchainSyncService.computeFinancialsBatchAsync(artistIds)
+            .thenApply(ResponseEntity::ok)
+            .exceptionally(e -> ResponseEntity.status(500).body(List.of()));
     }
 
     @PostMapping("/subscribe/{contractAddress}")
@@ -105,6 +112,31 @@ public class BlockchainController {
         }
     }
 
+    @GetMapping("/backfill-status")
+    public ResponseEntity<List<BackfillProgress>> getBackfillStatus() {
+        return ResponseEntity.ok(historicalBackfillService.getProgress());
+    }
+
+    @PostMapping("/candles/rebuild/{artistId}")
+    public ResponseEntity<String> rebuildCandles(
+            @PathVariable String artistId,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+            @RequestParam(required = false) List<String> timeframes) {
+        try {
+            Set<Timeframe> targets = timeframes == null || timeframes.isEmpty()
+                    ? EnumSet.allOf(Timeframe.class)
+                    : timeframes.stream().map(Timeframe::fromValue).collect(Collectors.toCollection(() -> EnumSet.noneOf(Timeframe.class)));
+            int repaired = candleDataService.rebuildCandles(artistId, from, to, targets);
+            return ResponseEntity.ok("Rebuilt candles for " + artistId + ", " + repaired + " rows repaired");
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        } catch (Exception e) {
+            logger.error("Candle rebuild failed for artistId {}: {}", artistId, e.getMessage(), e);
+            return ResponseEntity.status(500).body("Error rebuilding candles for artist " + artistId + ": " + e.getMessage());
+        }
+    }
+
     @PostMapping("/clear-caches")
     public ResponseEntity<String> clearCaches() {
         cacheManager.getCacheNames().forEach(cacheName -> {
@@ -3,25 +3,115 @@ package com.musicinvestment.musicapp.controller;
 
 import com.musicinvestment.musicapp.model.Trade;
 import com.musicinvestment.musicapp.repository.TradeRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumSet;
 import java.util.List;
+import java.util.Set;
 
 @RestController
 @RequestMapping("/api/trades")
 public class TradeController {
+    private static final Logger logger = LoggerFactory.getLogger(TradeController.class);
+    // Open ends of the keyset window; kept inside the range a Postgres timestamp can hold
+    private static final LocalDateTime OPEN_START = LocalDateTime.of(1970, 1, 1, 0, 0);
+    private static final LocalDateTime OPEN_END = LocalDateTime.of(9999, 12, 31, 23, 59, 59);
+
+    // A position in (timestamp, id) order; sent and accepted as "<epochMillis>:<id>"
+    private record Cursor(LocalDateTime timestamp, long id) {
+        static Cursor parse(String value) {
+            int separator = value.indexOf(':');
+            if (separator < 0) {
+                throw new IllegalArgumentException("Cursor must be <epochMillis>:<id>: " + value);
+            }
+            long millis = Long.parseLong(value.substring(0, separator));
+            long id = Long.parseLong(value.substring(separator + 1));
+            return new Cursor(LocalDateTime.ofInstant(Instant.ofEpochMilli(millis), ZoneOffset.UTC), id);
+        }
+
+        static String of(Trade trade) {
+            return trade.getTimestamp().toInstant(ZoneOffset.UTC).toEpochMilli() + ":" + trade.getId();
+        }
+    }
+
     private final TradeRepository tradeRepository;
+    private final int defaultLimit;
+    private final int maxLimit;
 
-    public TradeController(TradeRepository tradeRepository) {
+    public TradeController(TradeRepository tradeRepository,
+                           @Value("${trades.history.default-limit:50}") int defaultLimit,
+                           @Value("${trades.history.max-limit:500}") int maxLimit) {
         this.tradeRepository = tradeRepository;
+        this.defaultLimit = defaultLimit;
+        this.maxLimit = maxLimit;
     }
 
+    /**
+     * An artist's trades, newest first, one keyset page at a time. Without cursors this is the
+     * latest page; {@code before} pages back in time and {@code after} forward. The cursors of the
+     * oldest and newest trade returned come back in X-Next-Cursor and X-Prev-Cursor.
+     */
     @GetMapping("/artist/{artistId}")
-    public List<Trade> getTradesByArtistId(@PathVariable String artistId) {
-        return tradeRepository.findAll().stream()
-                .filter(trade -> trade.getArtistId().equals(artistId))
-                .toList();
+    public ResponseEntity<List<Trade>> getTradesByArtistId(
+            @PathVariable String artistId,
+            @RequestParam(required = false) String before,
+            @RequestParam(required = false) String after,
+            @RequestParam(required = false) Integer limit,
+            @RequestParam(required = false) Set<String> eventType) {
+        Cursor upper;
+        Cursor lower;
+        Set<Trade.EventType> eventTypes;
+        try {
+            upper = before != null ? Cursor.parse(before) : new Cursor(OPEN_END, Long.MAX_VALUE);
+            lower = after != null ? Cursor.parse(after) : new Cursor(OPEN_START, Long.MIN_VALUE);
+            eventTypes = parseEventTypes(eventType);
+        } catch (IllegalArgumentException e) {
+            logger.warn("Invalid trade history request for artistId {}: {}", artistId, e.getMessage());
+            return ResponseEntity.badRequest().build();
+        }
+        int size = Math.min(limit == null || limit <= 0 ? defaultLimit : limit, maxLimit);
+        PageRequest page = PageRequest.of(0, size);
+
+        List<Trade> trades;
+        if (after != null && before == null) {
+            // The page right after the cursor, not the newest trades overall
+            trades = new ArrayList<>(tradeRepository.findPageBetweenAsc(artistId, eventTypes,
+                    upper.timestamp(), upper.id(), lower.timestamp(), lower.id(), page));
+            Collections.reverse(trades);
+        } else {
+            trades = tradeRepository.findPageBetweenDesc(artistId, eventTypes,
+                    upper.timestamp(), upper.id(), lower.timestamp(), lower.id(), page);
+        }
+
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+        if (!trades.isEmpty()) {
+            response.header("X-Prev-Cursor", Cursor.of(trades.get(0)));
+            response.header("X-Next-Cursor", Cursor.of(trades.get(trades.size() - 1)));
+        }
+        return response.body(trades);
+    }
+
+    private Set<Trade.EventType> parseEventTypes(Set<String> values) {
+        if (values == null || values.isEmpty()) {
+            return EnumSet.allOf(Trade.EventType.class);
+        }
+        Set<Trade.EventType> eventTypes = EnumSet.noneOf(Trade.EventType.class);
+        for (String value : values) {
+            eventTypes.add(Trade.EventType.valueOf(value.trim().toUpperCase()));
+        }
+        return eventTypes;
     }
 }
\ No newline at end of file
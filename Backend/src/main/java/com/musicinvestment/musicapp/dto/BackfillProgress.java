@@ -0,0 +1,47 @@
+package com.musicinvestment.musicapp.dto;
+
+import lombok.Data;
+import java.time.LocalDateTime;
+
+@Data
+public class BackfillProgress {
+
+    public enum State {
+        PENDING, RUNNING, COMPLETED, FAILED
+    }
+
+    private String contractAddress;
+    private String artistId;
+    private State state = State.PENDING;
+    private int attempts;
+    private long startBlock;
+    private long targetBlock;
+    private long currentBlock;
+    private int windowsProcessed;
+    private int tradesSaved;
+    private double percentComplete;
+    private String error;
+    private LocalDateTime startedAt;
+    private LocalDateTime finishedAt;
+
+    public BackfillProgress(String contractAddress, String artistId) {
+        this.contractAddress = contractAddress;
+        this.artistId = artistId;
+    }
+
+    public BackfillProgress copy() {
+        BackfillProgress copy = new BackfillProgress(contractAddress, artistId);
+        copy.setState(state);
+        copy.setAttempts(attempts);
+        copy.setStartBlock(startBlock);
+        copy.setTargetBlock(targetBlock);
+        copy.setCurrentBlock(currentBlock);
+        copy.setWindowsProcessed(windowsProcessed);
+        copy.setTradesSaved(tradesSaved);
+        copy.setPercentComplete(percentComplete);
+        copy.setError(error);
+        copy.setStartedAt(startedAt);
+        copy.setFinishedAt(finishedAt);
+        return copy;
+    }
+}
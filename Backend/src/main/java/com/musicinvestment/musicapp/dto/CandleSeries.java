@@ -0,0 +1,81 @@
+package com.musicinvestment.musicapp.dto;
+
+import com.musicinvestment.musicapp.model.CandleData;
+import com.musicinvestment.musicapp.model.Trade;
+import lombok.Getter;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.time.ZoneOffset;
+import java.util.List;
+
+/**
+ * Candles as parallel columns for charting clients: epoch-second timestamps, OHLCV as doubles,
+ * and the last trade side per candle (1 = BUY, 2 = SELL, 0 = unknown).
+ */
+@Getter
+public class CandleSeries {
+
+    public static final String JSON_MEDIA_TYPE = "application/vnd.sounquity.candles+json";
+    public static final String BINARY_MEDIA_TYPE = "application/vnd.sounquity.candles";
+    private static final int BINARY_VERSION = 1;
+
+    private final String artistId;
+    private final String timeframe;
+    private final long[] t;
+    private final double[] o;
+    private final double[] h;
+    private final double[] l;
+    private final double[] c;
+    private final double[] v;
+    private final int[] e;
+
+    private CandleSeries(String artistId, String timeframe, int size) {
+        this.artistId = artistId;
+        this.timeframe = timeframe;
+        this.t = new long[size];
+        this.o = new double[size];
+        this.h = new double[size];
+        this.l = new double[size];
+        this.c = new double[size];
+        this.v = new double[size];
+        this.e = new int[size];
+    }
+
+    public static CandleSeries from(String artistId, String timeframe, List<CandleData> candles) {
+        CandleSeries series = new CandleSeries(artistId, timeframe, candles.size());
+        for (int i = 0; i < candles.size(); i++) {
+            CandleData candle = candles.get(i);
+            series.t[i] = candle.getTimestamp().toEpochSecond(ZoneOffset.UTC);
+            series.o[i] = candle.getOpen().doubleValue();
+            series.h[i] = candle.getHigh().doubleValue();
+            series.l[i] = candle.getLow().doubleValue();
+            series.c[i] = candle.getClose().doubleValue();
+            series.v[i] = candle.getVolume().doubleValue();
+            series.e[i] = candle.getLastEventType() == Trade.EventType.BUY ? 1
+                    : candle.getLastEventType() == Trade.EventType.SELL ? 2 : 0;
+        }
+        return series;
+    }
+
+    /**
+     * Little-endian columns: uint32 count, uint32 version, then int64 t[count], float64 o, h, l,
+     * c and v[count] each, then uint8 e[count]. The 8-byte header keeps every 64-bit column
+     * aligned, so a browser can wrap them in typed arrays without copying.
+     */
+    public byte[] toBinary() {
+        int n = t.length;
+        ByteBuffer buffer = ByteBuffer.allocate(8 + n * 6 * Long.BYTES + n).order(ByteOrder.LITTLE_ENDIAN);
+        buffer.putInt(n).putInt(BINARY_VERSION);
+        buffer.asLongBuffer().put(t);
+        buffer.position(buffer.position() + n * Long.BYTES);
+        for (double[] column : new double[][] {o, h, l, c, v}) {
+            buffer.asDoubleBuffer().put(column);
+            buffer.position(buffer.position() + n * Double.BYTES);
+        }
+        for (int side : e) {
+            buffer.put((byte) side);
+        }
+        return buffer.array();
+    }
+}
@@ -0,0 +1,20 @@
+package com.musicinvestment.musicapp.dto;
+
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import java.math.BigInteger;
+
+// On-chain view values for one artist token, all read at the same block
+@Data
+@NoArgsConstructor
+public class TokenSnapshot {
+    private String contractAddress;
+    private BigInteger blockNumber; // null when read at "latest"
+    private BigInteger totalSupply;
+    private BigInteger tokensSold;
+    private BigInteger tokensInCurve;
+    private BigInteger ethInCurve;
+    private BigInteger priceMicroUsd;
+    private BigInteger ethForOneToken;
+    private BigInteger dailySellLimitUsd;
+}
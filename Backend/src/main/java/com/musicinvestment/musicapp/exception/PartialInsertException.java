@@ -0,0 +1,19 @@
+package com.musicinvestment.musicapp.exception;
+
+import com.musicinvestment.musicapp.model.Trade;
+
+import java.util.List;
+
+// A row-by-row insert that failed partway; the trades before the failure are stored for good
+public class PartialInsertException extends RuntimeException {
+    private final List<Trade> inserted;
+
+    public PartialInsertException(List<Trade> inserted, RuntimeException cause) {
+        super(cause.getMessage(), cause);
+        this.inserted = List.copyOf(inserted);
+    }
+
+    public List<Trade> getInserted() {
+        return inserted;
+    }
+}
@@ -9,7 +9,8 @@ import java.time.LocalDateTime;
 
 @Data
 @Entity
-@Table(name = "candle_data")
+@Table(name = "candle_data", uniqueConstraints = @UniqueConstraint(
+        name = "uk_candle_data_artist_timeframe_timestamp", columnNames = {"artist_id", "timeframe", "timestamp"}))
 public class CandleData {
 
     @Id
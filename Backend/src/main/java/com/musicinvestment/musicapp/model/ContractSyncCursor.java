@@ -0,0 +1,27 @@
+package com.musicinvestment.musicapp.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import java.time.LocalDateTime;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Entity
+@Table(name = "contract_sync_cursors")
+public class ContractSyncCursor {
+
+    // Always stored lowercase
+    @Id
+    @Column(name = "contract_address", length = 42)
+    private String contractAddress;
+
+    // Every block up to and including this one has been ingested for the contract
+    @Column(name = "last_processed_block", nullable = false)
+    private Long lastProcessedBlock;
+
+    @Column(name = "updated_at", nullable = false)
+    private LocalDateTime updatedAt;
+}
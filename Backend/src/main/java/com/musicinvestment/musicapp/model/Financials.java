@@ -1,12 +1,13 @@
 package com.musicinvestment.musicapp.model;
 
 import lombok.Data;
+import java.io.Serializable;
 import java.time.LocalDateTime;
 import java.time.ZoneId;
 import java.time.format.DateTimeFormatter;
 
 @Data
-public class Financials {
+public class Financials implements Serializable {
     private String currentPrice; // USD formatted
     private String volume24h; // USD formatted
     private String marketCap; // USD formatted
@@ -47,4 +47,23 @@ public enum Timeframe {
             case ONE_WEEK -> 604800L;
         };
     }
-}
\ No newline at end of file
+
+    // Candles of history kept per timeframe, matching MAX_CANDLES_* in ArtistSharesToken.sol
+    public int getMaxCandles() {
+        return switch (this) {
+            case ONE_MINUTE -> 1000;
+            case FIVE_MINUTES -> 850;
+            case FIFTEEN_MINUTES -> 700;
+            case THIRTY_MINUTES -> 600;
+            case ONE_HOUR -> 500;
+            case FOUR_HOURS -> 400;
+            case ONE_DAY -> 365;
+            case ONE_WEEK -> 52;
+        };
+    }
+
+    // The next finer timeframe whose candles roll up into this one; null for 1m, which is built from trades
+    public Timeframe getSource() {
+        return ordinal() == 0 ? null : values()[ordinal() - 1];
+    }
+}
@@ -8,7 +8,9 @@ import java.time.LocalDateTime;
 
 @Data
 @Entity
-@Table(name = "trades")
+@Table(name = "trades",
+       uniqueConstraints = @UniqueConstraint(name = "uk_trades_tx_hash", columnNames = "tx_hash"),
+       indexes = @Index(name = "idx_trades_artist_timestamp", columnList = "artist_id, timestamp"))
 public class Trade {
 
     @Id
@@ -8,6 +8,7 @@ import org.springframework.stereotype.Repository;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.data.repository.query.Param;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -40,6 +41,9 @@ public interface ArtistRepository extends JpaRepository<Artist, String> {
     @Query("SELECT a.contractAddress FROM Artist a WHERE a.id = ?1")
     Optional<String> findContractAddressByArtistId(String artistId);
 
+    @Query("SELECT a.id, a.contractAddress FROM Artist a WHERE a.id IN :artistIds")
+    List<Object[]> findContractAddressesByArtistIds(@Param("artistIds") Collection<String> artistIds);
+
     // Modified to limit to one result and avoid NonUniqueResultException
     @Query("SELECT a.id FROM Artist a WHERE a.contractAddress = ?1")
     List<String> findArtistIdsByContractAddress(String contractAddress);
@@ -2,7 +2,10 @@ package com.musicinvestment.musicapp.repository;
 
 import com.musicinvestment.musicapp.model.CandleData;
 import com.musicinvestment.musicapp.model.Timeframe;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 import java.time.LocalDateTime;
 
@@ -13,5 +16,35 @@ public interface CandleDataRepository extends JpaRepository<CandleData, Long> {
     List<CandleData> findByArtistId(String artistId);
     List<CandleData> findByArtistIdAndTimeframe(String artistId, Timeframe timeframe);
 
+    // Both served by the (artist_id, timeframe, timestamp) unique index
+    @Query("SELECT c FROM CandleData c WHERE c.artistId = :artistId AND c.timeframe = :timeframe AND c.timestamp >= :from AND c.timestamp < :to ORDER BY c.timestamp ASC")
+    List<CandleData> findWindow(@Param("artistId") String artistId, @Param("timeframe") Timeframe timeframe,
+                                @Param("from") LocalDateTime from, @Param("to") LocalDateTime to, Pageable page);
+
+    @Query("SELECT c FROM CandleData c WHERE c.artistId = :artistId AND c.timeframe = :timeframe AND c.timestamp < :before ORDER BY c.timestamp DESC")
+    List<CandleData> findLatestBefore(@Param("artistId") String artistId, @Param("timeframe") Timeframe timeframe,
+                                      @Param("before") LocalDateTime before, Pageable page);
+
     CandleData findByArtistIdAndTimeframeAndTimestamp(String artistId, Timeframe timeframe, LocalDateTime timestamp);
+
+    List<CandleData> findByTimeframeAndTimestamp(Timeframe timeframe, LocalDateTime timestamp);
+
+    @Query("SELECT c FROM CandleData c WHERE c.artistId = :artistId AND c.timeframe = :timeframe AND c.timestamp >= :from AND c.timestamp < :to ORDER BY c.timestamp ASC")
+    List<CandleData> findRange(@Param("artistId") String artistId, @Param("timeframe") Timeframe timeframe,
+                               @Param("from") LocalDateTime from, @Param("to") LocalDateTime to);
+
+    // Keyset page: candles strictly after (afterTimestamp, afterId) and before :to, in (timestamp, id) order
+    @Query("SELECT c FROM CandleData c WHERE c.artistId = :artistId AND c.timeframe = :timeframe AND c.timestamp < :to AND (c.timestamp > :afterTimestamp OR (c.timestamp = :afterTimestamp AND c.id > :afterId)) ORDER BY c.timestamp ASC, c.id ASC")
+    List<CandleData> findPageAfter(@Param("artistId") String artistId, @Param("timeframe") Timeframe timeframe,
+                                   @Param("afterTimestamp") LocalDateTime afterTimestamp, @Param("afterId") long afterId,
+                                   @Param("to") LocalDateTime to, Pageable page);
+
+    // [timeframe, timestamp] of every stored candle of an artist in [from, to), for gap detection
+    @Query("SELECT c.timeframe, c.timestamp FROM CandleData c WHERE c.artistId = :artistId AND c.timestamp >= :from AND c.timestamp < :to")
+    List<Object[]> findPeriodsInRange(@Param("artistId") String artistId,
+                                      @Param("from") LocalDateTime from, @Param("to") LocalDateTime to);
+
+    @Query("SELECT c FROM CandleData c WHERE c.timeframe = :timeframe AND c.timestamp >= :from AND c.timestamp < :to ORDER BY c.artistId, c.timestamp ASC")
+    List<CandleData> findRangeForAllArtists(@Param("timeframe") Timeframe timeframe,
+                                            @Param("from") LocalDateTime from, @Param("to") LocalDateTime to);
 }
\ No newline at end of file
@@ -0,0 +1,32 @@
+package com.musicinvestment.musicapp.repository;
+
+import com.musicinvestment.musicapp.model.ContractSyncCursor;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+
+@Repository
+public interface ContractSyncCursorRepository extends JpaRepository<ContractSyncCursor, String> {
+
+    // Only moves cursors that are contiguous with the processed range, so a contract that is
+    // still catching up never skips the blocks between its cursor and fromBlock.
+    @Modifying
+    @Transactional
+    @Query("""
+    UPDATE ContractSyncCursor c
+    SET c.lastProcessedBlock = :toBlock, c.updatedAt = :now
+    WHERE c.contractAddress IN :addresses
+      AND c.lastProcessedBlock >= :fromBlock - 1
+      AND c.lastProcessedBlock < :toBlock
+    """)
+    int advanceContiguous(@Param("addresses") Collection<String> addresses,
+                          @Param("fromBlock") long fromBlock,
+                          @Param("toBlock") long toBlock,
+                          @Param("now") LocalDateTime now);
+}
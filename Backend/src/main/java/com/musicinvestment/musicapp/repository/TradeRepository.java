@@ -1,11 +1,13 @@
 package com.musicinvestment.musicapp.repository;
 
 import com.musicinvestment.musicapp.model.Trade;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -18,18 +20,52 @@ public interface TradeRepository extends JpaRepository<Trade, Long> {
     """)
     BigDecimal sumEthValueLast24h(@Param("artistId") String artistId, @Param("since") LocalDateTime since);
 
-    @Query("SELECT COALESCE(SUM(t.amountInUsd), 0) FROM Trade t WHERE LOWER(t.buyerOrSeller) = LOWER(:userAddress) AND t.timestamp >= :since")
-    BigDecimal sumAmountInUsdLast24h(@Param("userAddress") String userAddress, @Param("since") LocalDateTime since);
+    // [artistId, buyerOrSeller, amountInUsd, timestamp] per trade; seeds the in-memory 24h volume windows
+    @Query("SELECT t.artistId, t.buyerOrSeller, t.amountInUsd, t.timestamp FROM Trade t WHERE t.timestamp > :cutoff")
+    List<Object[]> findVolumeRowsSince(@Param("cutoff") LocalDateTime cutoff);
 
-    @Query("SELECT COALESCE(SUM(t.amountInUsd), 0) FROM Trade t WHERE t.artistId = :artistId AND t.timestamp > :cutoff")
-    BigDecimal sumVolume24hUsd(@Param("artistId") String artistId, @Param("cutoff") LocalDateTime cutoff);
+    @Query("SELECT t.timestamp FROM Trade t WHERE t.artistId = :artistId AND t.timestamp >= :from AND t.timestamp < :to")
+    List<LocalDateTime> findTimestampsInRange(@Param("artistId") String artistId,
+                                              @Param("from") LocalDateTime from, @Param("to") LocalDateTime to);
 
     @Query("SELECT COUNT(t) FROM Trade t WHERE t.artistId = :artistId")
     long countByArtistId(String artistId);
 
     Optional<Trade> findByTxHash(String txHash);
 
-    List<Trade> findByArtistIdOrderByTimestampAsc(String artistId);
+    @Query("SELECT t.txHash FROM Trade t WHERE t.txHash IN :txHashes")
+    List<String> findTxHashesIn(@Param("txHashes") Collection<String> txHashes);
+
+    // Keyset page: trades strictly after (afterTimestamp, afterId) and before :to, in (timestamp, id) order
+    @Query("SELECT t FROM Trade t WHERE t.artistId = :artistId AND t.timestamp < :to AND (t.timestamp > :afterTimestamp OR (t.timestamp = :afterTimestamp AND t.id > :afterId)) ORDER BY t.timestamp ASC, t.id ASC")
+    List<Trade> findPageAfter(@Param("artistId") String artistId, @Param("afterTimestamp") LocalDateTime afterTimestamp,
+                              @Param("afterId") long afterId, @Param("to") LocalDateTime to, Pageable page);
+
+    // Keyset page of an artist's trades strictly between two (timestamp, id) cursors, newest first
+    @Query("""
+    SELECT t FROM Trade t
+    WHERE t.artistId = :artistId AND t.eventType IN :eventTypes
+      AND (t.timestamp < :beforeTimestamp OR (t.timestamp = :beforeTimestamp AND t.id < :beforeId))
+      AND (t.timestamp > :afterTimestamp OR (t.timestamp = :afterTimestamp AND t.id > :afterId))
+    ORDER BY t.timestamp DESC, t.id DESC
+    """)
+    List<Trade> findPageBetweenDesc(@Param("artistId") String artistId, @Param("eventTypes") Collection<Trade.EventType> eventTypes,
+                                    @Param("beforeTimestamp") LocalDateTime beforeTimestamp, @Param("beforeId") long beforeId,
+                                    @Param("afterTimestamp") LocalDateTime afterTimestamp, @Param("afterId") long afterId,
+                                    Pageable page);
+
+    // Same window, oldest first: the page right after the "after" cursor
+    @Query("""
+    SELECT t FROM Trade t
+    WHERE t.artistId = :artistId AND t.eventType IN :eventTypes
+      AND (t.timestamp < :beforeTimestamp OR (t.timestamp = :beforeTimestamp AND t.id < :beforeId))
+      AND (t.timestamp > :afterTimestamp OR (t.timestamp = :afterTimestamp AND t.id > :afterId))
+    ORDER BY t.timestamp ASC, t.id ASC
+    """)
+    List<Trade> findPageBetweenAsc(@Param("artistId") String artistId, @Param("eventTypes") Collection<Trade.EventType> eventTypes,
+                                   @Param("beforeTimestamp") LocalDateTime beforeTimestamp, @Param("beforeId") long beforeId,
+                                   @Param("afterTimestamp") LocalDateTime afterTimestamp, @Param("afterId") long afterId,
+                                   Pageable page);
 
     Optional<Trade> findTopByArtistIdOrderByTimestampDesc(String artistId);
 }
\ No newline at end of file
@@ -0,0 +1,236 @@
+package com.musicinvestment.musicapp.service;
+
+import com.musicinvestment.musicapp.config.CacheInvalidationBus;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.core.env.Environment;
+import org.springframework.stereotype.Service;
+
+import java.io.Serializable;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * Per-artist entries of the financials, price and volume caches. Each entry carries the artist's
+ * version from when its computation started, and invalidating an artist bumps that version, so a
+ * value built from chain state read before a trade is neither served nor stored after it, while
+ * every other artist's entries stay warm. Entries read after their refresh-ahead age are served
+ * as-is and recomputed in the background, so hot artists never wait for an expired entry.
+ * Concurrent misses for the same key share a single computation.
+ */
+@Service
+public class ArtistCacheService {
+
+    private static final Logger logger = LoggerFactory.getLogger(ArtistCacheService.class);
+
+    public static final String FINANCIALS = "financials";
+    public static final String PRICES = "prices";
+    public static final String PRICES_RAW = "pricesRaw";
+    public static final String VOLUMES = "volumes";
+    public static final String VOLUMES_RAW = "volumesRaw";
+    private static final List<String> ARTIST_CACHES = List.of(FINANCIALS, PRICES, PRICES_RAW, VOLUMES, VOLUMES_RAW);
+
+    // Ages after which a read triggers a background reload, overridable with cache.refresh-after.<name>;
+    // kept below the expireAfterWrite of the same cache in CacheConfig
+    private static final Map<String, Duration> DEFAULT_REFRESH_AFTER = Map.of(
+            FINANCIALS, Duration.ofSeconds(45),
+            PRICES, Duration.ofSeconds(20),
+            PRICES_RAW, Duration.ofSeconds(20),
+            VOLUMES, Duration.ofSeconds(45),
+            VOLUMES_RAW, Duration.ofSeconds(45));
+
+    public record Stamped(long version, Object value, long loadedAtMillis) implements Serializable {}
+
+    private final CacheManager cacheManager;
+    private final MeterRegistry meterRegistry;
+    // Null unless the shared Redis tier is enabled; then versions are counted in Redis
+    private final CacheInvalidationBus invalidationBus;
+    private final Map<String, Long> refreshAfterMillis = new HashMap<>();
+    private final Map<String, AtomicLong> versions = new ConcurrentHashMap<>();
+    private final Set<String> refreshing = ConcurrentHashMap.newKeySet();
+    private final Map<String, CompletableFuture<Object>> inFlight = new ConcurrentHashMap<>();
+    private final ExecutorService refresher;
+
+    public ArtistCacheService(CacheManager cacheManager,
+                              MeterRegistry meterRegistry,
+                              Environment environment,
+                              ObjectProvider<CacheInvalidationBus> invalidationBus,
+                              @Value("${cache.refresh.threads:2}") int refreshThreads) {
+        this.cacheManager = cacheManager;
+        this.meterRegistry = meterRegistry;
+        this.invalidationBus = invalidationBus.getIfAvailable();
+        DEFAULT_REFRESH_AFTER.forEach((name, defaultAge) -> refreshAfterMillis.put(name,
+                environment.getProperty("cache.refresh-after." + name, Duration.class, defaultAge).toMillis()));
+        AtomicInteger threadCount = new AtomicInteger();
+        this.refresher = Executors.newFixedThreadPool(Math.max(1, refreshThreads), r -> {
+            Thread t = new Thread(r, "cache-refresh-" + threadCount.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        });
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        refresher.shutdownNow();
+    }
+
+    public long currentVersion(String artistId) {
+        return versions.computeIfAbsent(artistId, this::initialVersion).get();
+    }
+
+    // Another instance invalidated the artist; entries stamped with older versions stop being served
+    public void advanceVersion(String artistId, long version) {
+        versions.computeIfAbsent(artistId, k -> new AtomicLong(version)).accumulateAndGet(version, Math::max);
+    }
+
+    // Null unless the entry was computed under the artist's current version
+    public <T> T get(String cacheName, String artistId, Class<T> type) {
+        Stamped entry = current(cacheName, artistId, type);
+        return entry != null ? type.cast(entry.value()) : null;
+    }
+
+    // Stores the value only if the artist was not invalidated since {@code version} was read
+    public void put(String cacheName, String artistId, long version, Object value) {
+        Cache cache = cacheManager.getCache(cacheName);
+        if (cache != null && value != null && version == currentVersion(artistId)) {
+            cache.put(artistId, new Stamped(version, value, System.currentTimeMillis()));
+        }
+    }
+
+    public <T> T getOrLoad(String cacheName, String artistId, Class<T> type, Supplier<T> loader) {
+        Stamped entry = current(cacheName, artistId, type);
+        if (entry != null) {
+            Long refreshAfter = refreshAfterMillis.get(cacheName);
+            if (refreshAfter != null && System.currentTimeMillis() - entry.loadedAtMillis() >= refreshAfter) {
+                refreshAhead(cacheName, artistId, loader);
+            }
+            return type.cast(entry.value());
+        }
+        return load(cacheName, artistId, loader, "miss");
+    }
+
+    public void invalidateArtist(String artistId) {
+        AtomicLong local = versions.computeIfAbsent(artistId, this::initialVersion);
+        long version;
+        if (invalidationBus != null) {
+            try {
+                long shared = invalidationBus.incrementVersion(artistId);
+                version = local.updateAndGet(v -> Math.max(v + 1, shared));
+                invalidationBus.publishVersion(artistId, version);
+            } catch (RuntimeException e) {
+                logger.warn("Could not bump shared cache version for artistId {}: {}", artistId, e.getMessage());
+                version = local.incrementAndGet();
+            }
+        } else {
+            version = local.incrementAndGet();
+        }
+        for (String cacheName : ARTIST_CACHES) {
+            Cache cache = cacheManager.getCache(cacheName);
+            if (cache != null) {
+                cache.evict(artistId);
+            }
+        }
+        logger.debug("Invalidated cached financials for artistId {} (version {})", artistId, version);
+    }
+
+    private AtomicLong initialVersion(String artistId) {
+        if (invalidationBus != null) {
+            try {
+                return new AtomicLong(invalidationBus.fetchVersion(artistId));
+            } catch (RuntimeException e) {
+                logger.warn("Could not read shared cache version for artistId {}: {}", artistId, e.getMessage());
+            }
+        }
+        return new AtomicLong();
+    }
+
+    private Stamped current(String cacheName, String artistId, Class<?> type) {
+        Cache cache = cacheManager.getCache(cacheName);
+        Stamped entry = cache != null ? cache.get(artistId, Stamped.class) : null;
+        if (entry == null || entry.version() != currentVersion(artistId) || !type.isInstance(entry.value())) {
+            return null;
+        }
+        return entry;
+    }
+
+    /**
+     * Runs the loader once for all callers that ask for the same key while it runs; the others
+     * wait for and share its result (or its exception).
+     */
+    @SuppressWarnings("unchecked")
+    public <T> T singleFlight(String cacheName, String key, Supplier<T> loader) {
+        String flightKey = cacheName + ":" + key;
+        CompletableFuture<Object> flight = new CompletableFuture<>();
+        CompletableFuture<Object> leader = inFlight.putIfAbsent(flightKey, flight);
+        if (leader != null) {
+            meterRegistry.counter("cache.artist.coalesced", "cache", cacheName).increment();
+            try {
+                return (T) leader.join();
+            } catch (CompletionException e) {
+                throw e.getCause() instanceof RuntimeException cause ? cause : e;
+            }
+        }
+        try {
+            T value = loader.get();
+            flight.complete(value);
+            return value;
+        } catch (RuntimeException | Error e) {
+            flight.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(flightKey, flight);
+        }
+    }
+
+    // Flights are per version, so a caller arriving after an invalidation never joins a stale load
+    private <T> T load(String cacheName, String artistId, Supplier<T> loader, String trigger) {
+        long version = currentVersion(artistId);
+        return singleFlight(cacheName, artistId + "@" + version, () -> {
+            Timer.Sample sample = Timer.start(meterRegistry);
+            T value = loader.get();
+            sample.stop(meterRegistry.timer("cache.artist.load", "cache", cacheName, "trigger", trigger));
+            put(cacheName, artistId, version, value);
+            return value;
+        });
+    }
+
+    // At most one background reload per key; the stale entry keeps being served until it lands
+    private void refreshAhead(String cacheName, String artistId, Supplier<?> loader) {
+        String key = cacheName + ":" + artistId;
+        if (!refreshing.add(key)) {
+            return;
+        }
+        try {
+            refresher.execute(() -> {
+                try {
+                    load(cacheName, artistId, loader, "refresh");
+                } catch (Exception e) {
+                    logger.warn("Refresh-ahead of {} for artistId {} failed: {}", cacheName, artistId, e.getMessage());
+                } finally {
+                    refreshing.remove(key);
+                }
+            });
+        } catch (Exception e) {
+            refreshing.remove(key);
+            logger.warn("Could not schedule refresh-ahead of {} for artistId {}: {}", cacheName, artistId, e.getMessage());
+        }
+    }
+}
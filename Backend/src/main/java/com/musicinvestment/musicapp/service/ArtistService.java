@@ -19,11 +19,13 @@ public class ArtistService {
 
     private final ArtistRepository artistRepository;
     private final SpotifyService spotifyService;
+    private final ContractService contractService;
 
     @Autowired
-    public ArtistService(ArtistRepository artistRepository, SpotifyService spotifyService) {
+    public ArtistService(ArtistRepository artistRepository, SpotifyService spotifyService, ContractService contractService) {
         this.artistRepository = artistRepository;
         this.spotifyService = spotifyService;
+        this.contractService = contractService;
     }
 
     public Optional<Artist> getArtistById(String id) {
@@ -116,8 +118,11 @@ public class ArtistService {
             return;
         }
 
+        String previousAddress = artist.getContractAddress();
         artist.setContractAddress(contractAddress);
         artistRepository.save(artist);
+        contractService.invalidateTokenContract(previousAddress);
+        contractService.evictContractAddressCache(artistId);
 
         logger.info("Contract address updated successfully for artist: {} ({})", artist.getName(), contractAddress);
     }
@@ -0,0 +1,56 @@
+package com.musicinvestment.musicapp.service;
+
+import com.musicinvestment.musicapp.model.ContractSyncCursor;
+import com.musicinvestment.musicapp.repository.ContractSyncCursorRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.Collection;
+import java.util.Optional;
+
+@Service
+public class BlockCursorService {
+
+    private static final Logger logger = LoggerFactory.getLogger(BlockCursorService.class);
+
+    private final ContractSyncCursorRepository cursorRepository;
+
+    public BlockCursorService(ContractSyncCursorRepository cursorRepository) {
+        this.cursorRepository = cursorRepository;
+    }
+
+    public Optional<Long> getCursor(String contractAddress) {
+        return cursorRepository.findById(contractAddress.toLowerCase())
+                .map(ContractSyncCursor::getLastProcessedBlock);
+    }
+
+    // Moves the cursor forward only; a lower block is ignored
+    @Transactional
+    public void advance(String contractAddress, long block) {
+        String normalized = contractAddress.toLowerCase();
+        ContractSyncCursor cursor = cursorRepository.findById(normalized).orElse(null);
+        if (cursor == null) {
+            cursorRepository.save(new ContractSyncCursor(normalized, block, now()));
+            logger.debug("Created block cursor for {} at {}", normalized, block);
+        } else if (cursor.getLastProcessedBlock() < block) {
+            cursor.setLastProcessedBlock(block);
+            cursor.setUpdatedAt(now());
+            cursorRepository.save(cursor);
+        }
+    }
+
+    public int advanceContiguous(Collection<String> contractAddresses, long fromBlock, long toBlock) {
+        if (contractAddresses.isEmpty()) {
+            return 0;
+        }
+        return cursorRepository.advanceContiguous(contractAddresses, fromBlock, toBlock, now());
+    }
+
+    private LocalDateTime now() {
+        return LocalDateTime.now(ZoneId.of("UTC"));
+    }
+}
@@ -0,0 +1,337 @@
+package com.musicinvestment.musicapp.service;
+
+import com.musicinvestment.musicapp.model.CandleData;
+import com.musicinvestment.musicapp.model.Timeframe;
+import com.musicinvestment.musicapp.model.Trade;
+import com.musicinvestment.musicapp.repository.CandleDataRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static com.musicinvestment.musicapp.service.CandleEngine.PRICE_DECIMALS;
+import static com.musicinvestment.musicapp.service.CandleEngine.VOLUME_SCALE;
+import static com.musicinvestment.musicapp.service.CandleEngine.fromFixed;
+import static com.musicinvestment.musicapp.service.CandleEngine.toFixed;
+
+/**
+ * Newest stored candles per (artist, timeframe) in fixed-capacity ring buffers, sized by
+ * {@link Timeframe#getMaxCandles()}: prices as fixed-point longs, volumes as BigDecimals at the
+ * column's scale so a ring hit returns exactly what the table would. A ring is loaded from the table on first read and then kept
+ * current by the engine's flushes, so chart reads for the newest window never reach the database.
+ * Rings that cannot be patched in place (late trades, rebuilds) are dropped and reloaded lazily, and
+ * the least recently read rings are evicted, holder and all, when the total size passes the memory
+ * budget. Keys without any stored candle (new or unknown artists) get no holder at all.
+ */
+@Service
+public class CandleCache {
+
+    private static final Logger logger = LoggerFactory.getLogger(CandleCache.class);
+    private static final LocalDateTime OPEN_END = LocalDateTime.of(9999, 12, 31, 0, 0);
+    // Five longs, the side byte, and a volume BigDecimal (reference, object and its magnitude)
+    private static final int BYTES_PER_CANDLE = 5 * Long.BYTES + 1 + 80;
+
+    private record RingKey(String artistId, Timeframe timeframe) {}
+
+    // Candles in ascending time order; logical index i lives at (head + i) % capacity
+    private static final class CandleRing {
+        private final int capacity;
+        private final long[] t;
+        private final long[] o;
+        private final long[] h;
+        private final long[] l;
+        private final long[] c;
+        private final BigDecimal[] v;
+        private final byte[] e;
+        private int head;
+        private int size;
+        // true while the ring holds every stored candle, i.e. nothing older exists in the table
+        private boolean complete;
+
+        private CandleRing(int capacity) {
+            this.capacity = capacity;
+            this.t = new long[capacity];
+            this.o = new long[capacity];
+            this.h = new long[capacity];
+            this.l = new long[capacity];
+            this.c = new long[capacity];
+            this.v = new BigDecimal[capacity];
+            this.e = new byte[capacity];
+        }
+
+        private int slot(int index) {
+            return (head + index) % capacity;
+        }
+
+        // false when the candle would have to be inserted between cached ones
+        private boolean upsert(CandleData candle) {
+            long ts = candle.getTimestamp().toEpochSecond(ZoneOffset.UTC);
+            if (size == 0 || ts > t[slot(size - 1)]) {
+                if (size == capacity) {
+                    head = (head + 1) % capacity;
+                    size--;
+                    complete = false;
+                }
+                write(slot(size), ts, candle);
+                size++;
+                return true;
+            }
+            int index = indexOf(ts);
+            if (index >= 0) {
+                write(slot(index), ts, candle);
+                return true;
+            }
+            return ts < t[slot(0)] && !complete;
+        }
+
+        private int indexOf(long ts) {
+            int lo = 0;
+            int hi = size - 1;
+            while (lo <= hi) {
+                int mid = (lo + hi) >>> 1;
+                long midTs = t[slot(mid)];
+                if (midTs < ts) {
+                    lo = mid + 1;
+                } else if (midTs > ts) {
+                    hi = mid - 1;
+                } else {
+                    return mid;
+                }
+            }
+            return -(lo + 1);
+        }
+
+        // First logical index whose timestamp is >= ts
+        private int lowerBound(long ts) {
+            int index = indexOf(ts);
+            return index >= 0 ? index : -index - 1;
+        }
+
+        private void write(int slot, long ts, CandleData candle) {
+            t[slot] = ts;
+            o[slot] = toFixed(candle.getOpen(), PRICE_DECIMALS);
+            h[slot] = toFixed(candle.getHigh(), PRICE_DECIMALS);
+            l[slot] = toFixed(candle.getLow(), PRICE_DECIMALS);
+            c[slot] = toFixed(candle.getClose(), PRICE_DECIMALS);
+            v[slot] = (candle.getVolume() != null ? candle.getVolume() : BigDecimal.ZERO).setScale(VOLUME_SCALE, RoundingMode.HALF_UP);
+            e[slot] = (byte) (candle.getLastEventType() == null ? 0 : candle.getLastEventType().ordinal() + 1);
+        }
+
+        private CandleData read(String artistId, Timeframe timeframe, int index) {
+            int slot = slot(index);
+            CandleData candle = new CandleData(artistId, timeframe, LocalDateTime.ofEpochSecond(t[slot], 0, ZoneOffset.UTC),
+                    fromFixed(o[slot], PRICE_DECIMALS), fromFixed(h[slot], PRICE_DECIMALS),
+                    fromFixed(l[slot], PRICE_DECIMALS), fromFixed(c[slot], PRICE_DECIMALS),
+                    v[slot]);
+            candle.setLastEventType(e[slot] == 0 ? null : Trade.EventType.values()[e[slot] - 1]);
+            return candle;
+        }
+    }
+
+    // Lock for one key; the ring is null until the first read loads it
+    private static final class Holder {
+        private CandleRing ring;
+        private boolean removed; // no longer in the map; a reader that still got it falls back to the table
+        private volatile long lastAccess;
+    }
+
+    private final CandleDataRepository candleDataRepository;
+    private final long maxBytes;
+    private final Map<RingKey, Holder> holders = new ConcurrentHashMap<>();
+    private final AtomicLong usedBytes = new AtomicLong();
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+
+    public CandleCache(CandleDataRepository candleDataRepository,
+                       @Value("${candles.cache.max-bytes:33554432}") long maxBytes) {
+        this.candleDataRepository = candleDataRepository;
+        this.maxBytes = maxBytes;
+    }
+
+    /**
+     * Same contract as {@link CandleDataService#getCandles}'s stored part: the first {@code limit}
+     * candles in [from, upper) when {@code forward}, else the last {@code limit} before upper.
+     * A backward read longer than the ring returns the ring's candles plus the older rest from the
+     * table. Returns null when the ring cannot prove it holds every candle of the answer.
+     */
+    public List<CandleData> read(String artistId, Timeframe timeframe, LocalDateTime from, LocalDateTime upper,
+                                 int limit, boolean forward) {
+        if (maxBytes <= 0) {
+            return null;
+        }
+        RingKey key = new RingKey(artistId, timeframe);
+        Holder holder = holders.computeIfAbsent(key, k -> new Holder());
+        holder.lastAccess = System.nanoTime();
+        List<CandleData> result;
+        int shortfall = 0;
+        synchronized (holder) {
+            if (holder.removed) {
+                misses.incrementAndGet();
+                return null;
+            }
+            if (holder.ring == null) {
+                Boolean loaded = load(holder, artistId, timeframe);
+                if (loaded == null) {
+                    return null;
+                }
+                if (!loaded) {
+                    // Nothing stored for this key: answer empty, but keep no holder for it
+                    holder.removed = true;
+                    holders.remove(key, holder);
+                    return new ArrayList<>();
+                }
+            }
+            CandleRing ring = holder.ring;
+            long upperTs = upper.toEpochSecond(ZoneOffset.UTC);
+            int end = ring.lowerBound(upperTs);
+            int start;
+            if (forward) {
+                long fromTs = from.toEpochSecond(ZoneOffset.UTC);
+                if (!ring.complete && (ring.size == 0 || fromTs < ring.t[ring.slot(0)])) {
+                    misses.incrementAndGet();
+                    return null;
+                }
+                start = ring.lowerBound(fromTs);
+                end = Math.min(end, start + limit);
+            } else {
+                start = Math.max(0, end - limit);
+                if (end - start < limit && !ring.complete) {
+                    if (end == 0) {
+                        misses.incrementAndGet();
+                        return null;
+                    }
+                    shortfall = limit - (end - start); // older than anything the ring holds
+                }
+            }
+            result = new ArrayList<>(Math.max(0, end - start));
+            for (int i = start; i < end; i++) {
+                result.add(ring.read(artistId, timeframe, i));
+            }
+        }
+        if (shortfall > 0) {
+            List<CandleData> older = new ArrayList<>(candleDataRepository.findLatestBefore(
+                    artistId, timeframe, result.get(0).getTimestamp(), PageRequest.of(0, shortfall)));
+            Collections.reverse(older);
+            older.addAll(result);
+            result = older;
+        }
+        hits.incrementAndGet();
+        if (usedBytes.get() > maxBytes) {
+            evict();
+        }
+        return result;
+    }
+
+    // Called by the engine after a flush commits, so rings mirror the table without reading it
+    public void onFlushed(Collection<CandleData> candles) {
+        for (CandleData candle : candles) {
+            Holder holder = holders.get(new RingKey(candle.getArtistId(), candle.getTimeframe()));
+            if (holder == null) {
+                continue;
+            }
+            synchronized (holder) {
+                try {
+                    if (holder.ring != null && !holder.ring.upsert(candle)) {
+                        drop(holder);
+                    }
+                } catch (ArithmeticException e) {
+                    drop(holder);
+                }
+            }
+        }
+    }
+
+    public void invalidate(String artistId, Timeframe timeframe) {
+        Holder holder = holders.get(new RingKey(artistId, timeframe));
+        if (holder != null) {
+            synchronized (holder) {
+                drop(holder);
+            }
+        }
+    }
+
+    public void invalidateArtist(String artistId) {
+        for (Timeframe timeframe : Timeframe.values()) {
+            invalidate(artistId, timeframe);
+        }
+    }
+
+    public long getHits() {
+        return hits.get();
+    }
+
+    public long getMisses() {
+        return misses.get();
+    }
+
+    public long getUsedBytes() {
+        return usedBytes.get();
+    }
+
+    // true once the ring is loaded, false when nothing is stored for the key, null when the table could not be read
+    private Boolean load(Holder holder, String artistId, Timeframe timeframe) {
+        misses.incrementAndGet();
+        try {
+            int capacity = timeframe.getMaxCandles();
+            List<CandleData> newest = candleDataRepository.findLatestBefore(artistId, timeframe, OPEN_END, PageRequest.of(0, capacity));
+            if (newest.isEmpty()) {
+                return false;
+            }
+            CandleRing ring = new CandleRing(capacity);
+            for (int i = newest.size() - 1; i >= 0; i--) {
+                ring.upsert(newest.get(i));
+            }
+            ring.complete = newest.size() < capacity;
+            holder.ring = ring;
+            usedBytes.addAndGet((long) capacity * BYTES_PER_CANDLE);
+            logger.debug("Loaded {} {} candles for {} into cache", newest.size(), timeframe.getValue(), artistId);
+        } catch (Exception e) {
+            logger.warn("Could not load candle cache for {} {}: {}", artistId, timeframe.getValue(), e.getMessage());
+            return null;
+        }
+        return true;
+    }
+
+    private void drop(Holder holder) {
+        if (holder.ring != null) {
+            usedBytes.addAndGet(-(long) holder.ring.capacity * BYTES_PER_CANDLE);
+            holder.ring = null;
+        }
+    }
+
+    // Drops the least recently read rings until the budget holds again; never called under a holder lock
+    private synchronized void evict() {
+        List<Map.Entry<RingKey, Holder>> entries = new ArrayList<>(holders.entrySet());
+        entries.sort(Comparator.comparingLong(entry -> entry.getValue().lastAccess));
+        int evicted = 0;
+        for (Map.Entry<RingKey, Holder> entry : entries) {
+            if (usedBytes.get() <= maxBytes) {
+                break;
+            }
+            Holder holder = entry.getValue();
+            synchronized (holder) {
+                if (holder.ring != null) {
+                    drop(holder);
+                    evicted++;
+                }
+                holder.removed = true;
+                holders.remove(entry.getKey(), holder);
+            }
+        }
+        logger.info("Evicted {} candle rings, cache now {} bytes", evicted, usedBytes.get());
+    }
+}
@@ -2,22 +2,61 @@ package com.musicinvestment.musicapp.service;
 
 import com.musicinvestment.musicapp.model.CandleData;
 import com.musicinvestment.musicapp.model.Timeframe;
+import com.musicinvestment.musicapp.model.Trade;
 import com.musicinvestment.musicapp.repository.CandleDataRepository;
+import com.musicinvestment.musicapp.repository.TradeRepository;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
 
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
 
 @Service
 public class CandleDataService {
 
     private static final Logger logger = LoggerFactory.getLogger(CandleDataService.class);
+    private static final LocalDateTime OPEN_END = LocalDateTime.of(9999, 12, 31, 0, 0);
 
     @Autowired
     private CandleDataRepository candleDataRepository;
 
+    @Autowired
+    private CandleEngine candleEngine;
+
+    @Autowired
+    private TradeRepository tradeRepository;
+
+    @Autowired
+    private CandleCache candleCache;
+
+    @Value("${candles.query.default-limit:1000}")
+    private int defaultQueryLimit;
+
+    @Value("${candles.query.max-limit:5000}")
+    private int maxQueryLimit;
+
+    @Value("${candles.rebuild.page-size:2000}")
+    private int rebuildPageSize;
+
+    @Value("${candles.rebuild.write-chunk-size:500}")
+    private int rebuildWriteChunkSize;
+
     public void saveCandleData(CandleData candleData) {
         try {
             candleDataRepository.save(candleData);
@@ -30,10 +69,263 @@ public class CandleDataService {
         }
     }
 
-    public List<CandleData> getCandleDataByArtistIdAndTimeframe(String artistId, Timeframe timeframe) {
-        logger.debug("Fetching candle data for artistId={}, timeframe={}", artistId, timeframe);
-        List<CandleData> candles = candleDataRepository.findByArtistIdAndTimeframe(artistId, timeframe);
+    /**
+     * Candles of one artist and timeframe in time order, never more than {@code limit}. With
+     * {@code from}, the first candles in [from, to); otherwise the last candles before
+     * {@code before} (or {@code to}, or now), which is what a chart scrolling back asks for.
+     * Candles the engine holds in memory and has not flushed yet are overlaid.
+     */
+    public List<CandleData> getCandles(String artistId, Timeframe timeframe, LocalDateTime from, LocalDateTime to,
+                                       LocalDateTime before, Integer limit) {
+        int size = Math.min(limit == null || limit <= 0 ? defaultQueryLimit : limit, maxQueryLimit);
+        boolean forward = before == null && from != null;
+        LocalDateTime upper = before != null ? before : (to != null ? to : OPEN_END);
+
+        List<CandleData> candles = candleCache.read(artistId, timeframe, from, upper, size, forward);
+        if (candles != null) {
+            candles = new ArrayList<>(candles);
+        } else if (forward) {
+            candles = new ArrayList<>(candleDataRepository.findWindow(artistId, timeframe, from, upper, PageRequest.of(0, size)));
+        } else {
+            candles = new ArrayList<>(candleDataRepository.findLatestBefore(artistId, timeframe, upper, PageRequest.of(0, size)));
+            Collections.reverse(candles);
+        }
+
+        for (CandleData pending : candleEngine.pendingCandles(artistId, timeframe)) {
+            LocalDateTime ts = pending.getTimestamp();
+            if (!ts.isBefore(upper) || (forward && ts.isBefore(from))) {
+                continue;
+            }
+            candles.removeIf(stored -> stored.getTimestamp().equals(ts));
+            candles.add(pending);
+        }
+        candles.sort(Comparator.comparing(CandleData::getTimestamp));
+        if (candles.size() > size) {
+            candles = forward ? candles.subList(0, size) : candles.subList(candles.size() - size, candles.size());
+        }
         logger.debug("Fetched {} candles for artistId={}, timeframe={}", candles.size(), artistId, timeframe);
         return candles;
     }
-}
\ No newline at end of file
+
+    public void updateCandlesForTrade(Trade trade) {
+        if (trade == null || trade.getTxHash() == null || trade.getTxHash().trim().isEmpty()) {
+            logger.error("BLOCKED: updateCandlesForTrade called with null or empty trade/txHash");
+            return;
+        }
+        logger.debug("Processing candle update: artistId={}, priceUsd={}, volTokens={}",
+            trade.getArtistId(), trade.getPriceInUsd().stripTrailingZeros().toPlainString(), trade.getAmount());
+        candleEngine.apply(trade);
+    }
+
+    // Backfilled trades only touch the open candles; their closed periods are rebuilt once the job is done
+    public void updateOpenCandlesForTrade(Trade trade) {
+        candleEngine.applyToOpen(trade);
+    }
+
+    /**
+     * Recomputes the given timeframes of an artist over [from, to), widened to whole periods of the
+     * coarsest one. Trades (or, without 1m, the stored candles of the finest timeframe's source) are
+     * streamed in keyset pages and rolled up in one pass; rebuilt candles are compared with the
+     * stored rows chunk by chunk, so only missing or wrong rows are written and stray rows deleted.
+     * Periods still open are left to the live engine. Returns the number of rows repaired.
+     */
+    public int rebuildCandles(String artistId, LocalDateTime from, LocalDateTime to, Set<Timeframe> timeframes) {
+        EnumSet<Timeframe> targets = EnumSet.copyOf(timeframes);
+        Timeframe finest = targets.iterator().next();
+        Timeframe coarsest = Collections.max(targets);
+        LocalDateTime start = CandleRollup.periodStart(from, coarsest);
+        LocalDateTime end = CandleRollup.periodStart(to, coarsest);
+        if (end.isBefore(to)) {
+            end = end.plusSeconds(coarsest.getIntervalSeconds());
+        }
+
+        // Anything the engine closed but has not written yet must be in the table before we compare
+        candleEngine.flush();
+        LocalDateTime now = LocalDateTime.now(ZoneOffset.UTC);
+        Map<Timeframe, RangeWriter> writers = new EnumMap<>(Timeframe.class);
+        for (Timeframe tf : targets) {
+            LocalDateTime limit = CandleRollup.periodStart(now, tf);
+            writers.put(tf, new RangeWriter(artistId, tf, start, limit.isBefore(end) ? limit : end));
+        }
+        CandleRollup rollup = new CandleRollup(artistId, targets, candle -> writers.get(candle.getTimeframe()).accept(candle));
+
+        long read = 0;
+        if (finest.getSource() == null) {
+            LocalDateTime afterTimestamp = start;
+            long afterId = -1;
+            List<Trade> page;
+            do {
+                page = tradeRepository.findPageAfter(artistId, afterTimestamp, afterId, end, PageRequest.of(0, rebuildPageSize));
+                for (Trade trade : page) {
+                    rollup.acceptTick(trade.getTimestamp(), trade.getPriceInUsd(), new BigDecimal(trade.getAmount()), trade.getEventType());
+                }
+                if (!page.isEmpty()) {
+                    Trade last = page.get(page.size() - 1);
+                    afterTimestamp = last.getTimestamp();
+                    afterId = last.getId();
+                    read += page.size();
+                }
+            } while (page.size() == rebuildPageSize);
+        } else {
+            LocalDateTime afterTimestamp = start;
+            long afterId = -1;
+            List<CandleData> page;
+            do {
+                page = candleDataRepository.findPageAfter(artistId, finest.getSource(), afterTimestamp, afterId, end, PageRequest.of(0, rebuildPageSize));
+                page.forEach(rollup::acceptCandle);
+                if (!page.isEmpty()) {
+                    CandleData last = page.get(page.size() - 1);
+                    afterTimestamp = last.getTimestamp();
+                    afterId = last.getId();
+                    read += page.size();
+                }
+            } while (page.size() == rebuildPageSize);
+        }
+        rollup.finish();
+
+        int repaired = 0;
+        for (RangeWriter writer : writers.values()) {
+            writer.finish();
+            repaired += writer.repaired;
+        }
+        logger.info("Rebuilt candles for {} {} between {} and {}: {} rows read, {} candles repaired",
+                artistId, targets.stream().map(Timeframe::getValue).toList(), start, end, read, repaired);
+        return repaired;
+    }
+
+    public int rebuildCandles(String artistId, LocalDateTime from, LocalDateTime to) {
+        return rebuildCandles(artistId, from, to, EnumSet.allOf(Timeframe.class));
+    }
+
+    /**
+     * Rebuilds only the weeks of [from, to) in which some closed period has trades (or, above 1m,
+     * stored candles of its source timeframe) but no row of its own, so a restart repairs what was
+     * lost without rewriting candles that are already there. Returns the number of rows repaired.
+     */
+    public int repairCandleGaps(String artistId, LocalDateTime from, LocalDateTime to) {
+        candleEngine.flush();
+        LocalDateTime start = CandleRollup.periodStart(from, Timeframe.ONE_WEEK);
+        LocalDateTime now = LocalDateTime.now(ZoneOffset.UTC);
+        Map<Timeframe, Set<LocalDateTime>> stored = new EnumMap<>(Timeframe.class);
+        for (Timeframe tf : Timeframe.values()) {
+            stored.put(tf, new HashSet<>());
+        }
+        for (Object[] row : candleDataRepository.findPeriodsInRange(artistId, start, to)) {
+            stored.get((Timeframe) row[0]).add((LocalDateTime) row[1]);
+        }
+
+        // A period needs a row when anything finer exists for it: a trade at 1m, a source candle above
+        TreeSet<LocalDateTime> weeks = new TreeSet<>();
+        Set<LocalDateTime> finer = new HashSet<>(tradeRepository.findTimestampsInRange(artistId, start, to));
+        for (Timeframe tf : Timeframe.values()) {
+            LocalDateTime open = CandleRollup.periodStart(now, tf);
+            Set<LocalDateTime> rows = stored.get(tf);
+            for (LocalDateTime timestamp : finer) {
+                LocalDateTime period = CandleRollup.periodStart(timestamp, tf);
+                if (period.isBefore(open) && !rows.contains(period)) {
+                    weeks.add(CandleRollup.periodStart(period, Timeframe.ONE_WEEK));
+                }
+            }
+            finer = rows;
+        }
+
+        // Adjacent weeks are rebuilt together so their trades are streamed once
+        int repaired = 0;
+        LocalDateTime rangeStart = null;
+        LocalDateTime rangeEnd = null;
+        for (LocalDateTime week : weeks) {
+            if (rangeEnd != null && !week.equals(rangeEnd)) {
+                repaired += rebuildCandles(artistId, rangeStart, rangeEnd);
+                rangeStart = null;
+            }
+            if (rangeStart == null) {
+                rangeStart = week;
+            }
+            rangeEnd = week.plusSeconds(Timeframe.ONE_WEEK.getIntervalSeconds());
+        }
+        if (rangeStart != null) {
+            repaired += rebuildCandles(artistId, rangeStart, rangeEnd);
+        }
+        if (!weeks.isEmpty()) {
+            logger.info("Repaired candle gaps for {} in {} weeks since {}: {} rows", artistId, weeks.size(), start, repaired);
+        }
+        return repaired;
+    }
+
+    // Writes one timeframe's rebuilt candles in chunks, each checked against the stored rows of the same window
+    private class RangeWriter {
+        private final String artistId;
+        private final Timeframe timeframe;
+        private final LocalDateTime limit;
+        private final List<CandleData> buffer = new ArrayList<>();
+        private LocalDateTime windowStart;
+        private int repaired;
+
+        private RangeWriter(String artistId, Timeframe timeframe, LocalDateTime start, LocalDateTime limit) {
+            this.artistId = artistId;
+            this.timeframe = timeframe;
+            this.windowStart = start;
+            this.limit = limit;
+        }
+
+        private void accept(CandleData candle) {
+            if (!candle.getTimestamp().isBefore(limit)) {
+                return;
+            }
+            buffer.add(candle);
+            if (buffer.size() >= rebuildWriteChunkSize) {
+                write(candle.getTimestamp().plusSeconds(timeframe.getIntervalSeconds()));
+            }
+        }
+
+        private void finish() {
+            if (windowStart.isBefore(limit)) {
+                write(limit);
+            }
+        }
+
+        private void write(LocalDateTime windowEnd) {
+            Map<LocalDateTime, CandleData> stored = new HashMap<>();
+            List<CandleData> stray = new ArrayList<>();
+            for (CandleData row : candleDataRepository.findRange(artistId, timeframe, windowStart, windowEnd)) {
+                if (stored.putIfAbsent(row.getTimestamp(), row) != null) {
+                    stray.add(row);
+                }
+            }
+            List<CandleData> changed = new ArrayList<>();
+            for (CandleData candle : buffer) {
+                CandleData row = stored.remove(candle.getTimestamp());
+                if (row != null) {
+                    candle.setId(row.getId());
+                    if (sameValues(row, candle)) {
+                        continue;
+                    }
+                }
+                changed.add(candle);
+            }
+            stray.addAll(stored.values());
+
+            if (!stray.isEmpty()) {
+                candleDataRepository.deleteAllInBatch(stray);
+            }
+            if (!changed.isEmpty()) {
+                candleDataRepository.saveAll(changed);
+            }
+            if (!changed.isEmpty() || !stray.isEmpty()) {
+                candleCache.invalidate(artistId, timeframe);
+            }
+            repaired += changed.size() + stray.size();
+            buffer.clear();
+            windowStart = windowEnd;
+        }
+    }
+
+    private static boolean sameValues(CandleData a, CandleData b) {
+        return a.getOpen().compareTo(b.getOpen()) == 0
+                && a.getHigh().compareTo(b.getHigh()) == 0
+                && a.getLow().compareTo(b.getLow()) == 0
+                && a.getClose().compareTo(b.getClose()) == 0
+                && a.getVolume().compareTo(b.getVolume()) == 0
+                && a.getLastEventType() == b.getLastEventType();
+    }
+}
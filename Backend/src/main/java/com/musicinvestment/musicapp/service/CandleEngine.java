@@ -0,0 +1,498 @@
+package com.musicinvestment.musicapp.service;
+
+import com.musicinvestment.musicapp.model.CandleData;
+import com.musicinvestment.musicapp.model.Timeframe;
+import com.musicinvestment.musicapp.model.Trade;
+import com.musicinvestment.musicapp.repository.CandleDataRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+/**
+ * Keeps the open candles of every artist in memory as a roll-up cascade: a trade updates only the
+ * open 1m candle, and when a candle closes it is merged into the open candle one timeframe up
+ * (1m into 5m, 5m into 15m, ... 1D into 1W). The open candle of a coarser timeframe is therefore
+ * its closed children plus the still-open child. Prices are fixed-point longs, volumes exact
+ * BigDecimals at the column's scale, and candles reach candle_data in batches: once when they close, and on every flush tick while open and changed.
+ * Late trades for a period older than the open one go to the closed candle still waiting for a flush,
+ * or else straight to the table. Backfilled trades only touch the open candles; their closed periods
+ * are rebuilt from the trades table by {@link CandleDataService#rebuildCandles}.
+ */
+@Service
+public class CandleEngine {
+
+    private static final Logger logger = LoggerFactory.getLogger(CandleEngine.class);
+    private static final Timeframe[] TIMEFRAMES = Timeframe.values();
+    static final int PRICE_DECIMALS = 10; // same scale as trades.price_in_usd
+    static final int VOLUME_SCALE = 18; // same scale as candle_data.volume
+
+    // For the 1m level the whole candle; above it, the closed children and late ticks only
+    private static final class OpenCandle {
+        private final String artistId;
+        private final Timeframe timeframe;
+        private final long periodStart;
+        private volatile Long id; // written only by flush(), which is serialized
+        private boolean hasData;
+        private long open;
+        private long high;
+        private long low;
+        private long close;
+        private BigDecimal volume = BigDecimal.ZERO;
+        private Trade.EventType lastEventType;
+        private boolean dirty;
+
+        private OpenCandle(String artistId, Timeframe timeframe, long periodStart) {
+            this.artistId = artistId;
+            this.timeframe = timeframe;
+            this.periodStart = periodStart;
+        }
+
+        private void apply(long price, BigDecimal amount, Trade.EventType eventType) {
+            if (!hasData) {
+                open = price;
+                high = price;
+                low = price;
+                hasData = true;
+            } else {
+                high = Math.max(high, price);
+                low = Math.min(low, price);
+            }
+            close = price;
+            volume = volume.add(amount);
+            lastEventType = eventType;
+            dirty = true;
+        }
+
+        // child must be later than everything already merged in
+        private void merge(OpenCandle child) {
+            if (!child.hasData) {
+                return;
+            }
+            if (!hasData) {
+                open = child.open;
+                high = child.high;
+                low = child.low;
+                hasData = true;
+            } else {
+                high = Math.max(high, child.high);
+                low = Math.min(low, child.low);
+            }
+            close = child.close;
+            volume = volume.add(child.volume);
+            lastEventType = child.lastEventType;
+            dirty = true;
+        }
+
+        private OpenCandle copy() {
+            OpenCandle copy = new OpenCandle(artistId, timeframe, periodStart);
+            copy.id = id;
+            copy.hasData = hasData;
+            copy.open = open;
+            copy.high = high;
+            copy.low = low;
+            copy.close = close;
+            copy.volume = volume;
+            copy.lastEventType = lastEventType;
+            return copy;
+        }
+
+        private CandleData toEntity() {
+            CandleData candle = new CandleData(artistId, timeframe, periodTimestamp(periodStart),
+                    fromFixed(open, PRICE_DECIMALS), fromFixed(high, PRICE_DECIMALS),
+                    fromFixed(low, PRICE_DECIMALS), fromFixed(close, PRICE_DECIMALS),
+                    volume.setScale(VOLUME_SCALE, RoundingMode.HALF_UP));
+            candle.setId(id);
+            candle.setLastEventType(lastEventType);
+            return candle;
+        }
+    }
+
+    // One artist's open candles, one per timeframe; each level's period contains the level below's
+    private static final class CandleBook {
+        private final String artistId;
+        private final OpenCandle[] levels = new OpenCandle[TIMEFRAMES.length];
+
+        private CandleBook(String artistId) {
+            this.artistId = artistId;
+        }
+
+        // Open candle of a level with the still-open finer levels rolled in
+        private OpenCandle effective(int level) {
+            OpenCandle merged = levels[0].copy();
+            for (int i = 1; i <= level; i++) {
+                OpenCandle next = levels[i].copy();
+                next.merge(merged);
+                merged = next;
+            }
+            return merged;
+        }
+    }
+
+    private final CandleDataRepository candleDataRepository;
+    private final CandleCache candleCache;
+    private final Map<String, CandleBook> books = new ConcurrentHashMap<>();
+    private final Queue<OpenCandle> closedCandles = new ConcurrentLinkedQueue<>();
+    private volatile List<OpenCandle> flushingCandles = List.of(); // closed candles taken by the flush in progress
+
+    public CandleEngine(CandleDataRepository candleDataRepository, CandleCache candleCache) {
+        this.candleDataRepository = candleDataRepository;
+        this.candleCache = candleCache;
+    }
+
+    @PostConstruct
+    public void recoverOpenCandles() {
+        long[] starts = periodStarts(Instant.now().getEpochSecond());
+        List<Map<String, CandleData>> rows = new ArrayList<>();
+        List<Map<String, List<CandleData>>> children = new ArrayList<>();
+        Set<String> artistIds = new HashSet<>();
+        for (int i = 0; i < TIMEFRAMES.length; i++) {
+            Map<String, CandleData> byArtist = new HashMap<>();
+            for (CandleData row : candleDataRepository.findByTimeframeAndTimestamp(TIMEFRAMES[i], periodTimestamp(starts[i]))) {
+                byArtist.put(row.getArtistId(), row);
+            }
+            rows.add(byArtist);
+            artistIds.addAll(byArtist.keySet());
+
+            Map<String, List<CandleData>> closedChildren = new HashMap<>();
+            if (i > 0) {
+                for (CandleData child : candleDataRepository.findRangeForAllArtists(
+                        TIMEFRAMES[i - 1], periodTimestamp(starts[i]), periodTimestamp(starts[i - 1]))) {
+                    closedChildren.computeIfAbsent(child.getArtistId(), k -> new ArrayList<>()).add(child);
+                }
+            }
+            children.add(closedChildren);
+        }
+
+        for (String artistId : artistIds) {
+            CandleBook book = new CandleBook(artistId);
+            for (int i = 0; i < TIMEFRAMES.length; i++) {
+                book.levels[i] = restore(artistId, i, starts[i], rows.get(i).get(artistId),
+                        children.get(i).getOrDefault(artistId, List.of()),
+                        i > 0 && rows.get(i - 1).containsKey(artistId));
+            }
+            books.put(artistId, book);
+        }
+        logger.info("Candle engine recovered open candles for {} artists", artistIds.size());
+    }
+
+    public void apply(Trade trade) {
+        long[] starts = periodStarts(trade.getTimestamp().atZone(ZoneId.of("UTC")).toEpochSecond());
+        long price = toFixed(trade.getPriceInUsd(), PRICE_DECIMALS);
+        BigDecimal amount = new BigDecimal(trade.getAmount());
+        CandleBook book = books.computeIfAbsent(trade.getArtistId(), CandleBook::new);
+
+        try {
+            synchronized (book) {
+                if (book.levels[0] == null || starts[0] > book.levels[0].periodStart) {
+                    roll(book, 0, starts);
+                    book.levels[0].apply(price, amount, trade.getEventType());
+                    return;
+                }
+                // Same or older minute: the finest level still open for this trade takes it, finer ones are closed
+                for (int i = 0; i < TIMEFRAMES.length; i++) {
+                    if (book.levels[i].periodStart == starts[i]) {
+                        book.levels[i].apply(price, amount, trade.getEventType());
+                        return;
+                    }
+                    OpenCandle unflushed = findClosedCandle(trade.getArtistId(), TIMEFRAMES[i], starts[i]);
+                    if (unflushed != null) {
+                        unflushed.apply(price, amount, trade.getEventType());
+                        if (!closedCandles.contains(unflushed)) {
+                            closedCandles.add(unflushed); // the flush in progress wrote it without this trade
+                        }
+                    } else {
+                        applyToStoredCandle(trade, TIMEFRAMES[i], starts[i]);
+                    }
+                }
+            }
+        } catch (Exception e) {
+            logger.error("Failed to update candles for artistId={}, tx={}, error={}",
+                    trade.getArtistId(), trade.getTxHash(), e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Applies a backfilled trade to the open candles only: the finest level whose period is still
+     * open by the clock takes it, as a late tick. Trades of closed periods are left to the caller,
+     * who rebuilds those periods from the trades table in one pass.
+     */
+    public void applyToOpen(Trade trade) {
+        long[] starts = periodStarts(trade.getTimestamp().atZone(ZoneId.of("UTC")).toEpochSecond());
+        long[] current = periodStarts(Instant.now().getEpochSecond());
+        int level = 0;
+        while (level < TIMEFRAMES.length && starts[level] != current[level]) {
+            level++;
+        }
+        if (level == TIMEFRAMES.length) {
+            return;
+        }
+        CandleBook book = books.computeIfAbsent(trade.getArtistId(), CandleBook::new);
+
+        try {
+            synchronized (book) {
+                if (book.levels[0] == null || current[0] > book.levels[0].periodStart) {
+                    roll(book, 0, current);
+                }
+                if (book.levels[level].periodStart == starts[level]) {
+                    book.levels[level].apply(toFixed(trade.getPriceInUsd(), PRICE_DECIMALS),
+                            new BigDecimal(trade.getAmount()), trade.getEventType());
+                }
+            }
+        } catch (Exception e) {
+            logger.error("Failed to update open candles for artistId={}, tx={}, error={}",
+                    trade.getArtistId(), trade.getTxHash(), e.getMessage(), e);
+        }
+    }
+
+    // In-memory candles not yet in the table (the open one and any closed but unflushed), for read-through
+    public List<CandleData> pendingCandles(String artistId, Timeframe timeframe) {
+        List<CandleData> pending = new ArrayList<>();
+        for (OpenCandle closed : closedCandles) {
+            if (closed.artistId.equals(artistId) && closed.timeframe == timeframe) {
+                pending.add(closed.toEntity());
+            }
+        }
+        CandleBook book = books.get(artistId);
+        if (book != null) {
+            synchronized (book) {
+                if (book.levels[0] != null) {
+                    OpenCandle open = book.effective(timeframe.ordinal());
+                    if (open.hasData) {
+                        pending.add(open.toEntity());
+                    }
+                }
+            }
+        }
+        return pending;
+    }
+
+    @Scheduled(fixedDelayString = "${candles.flush-interval-ms:5000}")
+    @PreDestroy
+    public synchronized void flush() {
+        List<OpenCandle> candles = new ArrayList<>();
+        List<CandleData> batch = new ArrayList<>();
+        // Published before leaving the queue so a late trade always finds these candles instead of inserting a row
+        List<OpenCandle> retired = new ArrayList<>(closedCandles);
+        flushingCandles = List.copyOf(retired);
+        closedCandles.removeAll(retired);
+        for (OpenCandle candle : retired) {
+            synchronized (books.get(candle.artistId)) {
+                candles.add(candle);
+                batch.add(candle.toEntity());
+            }
+        }
+        for (CandleBook book : books.values()) {
+            synchronized (book) {
+                if (book.levels[0] == null) {
+                    continue;
+                }
+                // A level changes whenever it or any finer level changed
+                boolean changed = false;
+                for (int i = 0; i < TIMEFRAMES.length; i++) {
+                    OpenCandle base = book.levels[i];
+                    changed |= base.dirty;
+                    if (changed) {
+                        OpenCandle open = book.effective(i);
+                        if (open.hasData) {
+                            candles.add(base);
+                            batch.add(open.toEntity());
+                        }
+                    }
+                }
+                for (OpenCandle base : book.levels) {
+                    base.dirty = false;
+                }
+            }
+        }
+        if (batch.isEmpty()) {
+            return;
+        }
+
+        try {
+            List<CandleData> saved = candleDataRepository.saveAll(batch);
+            for (int i = 0; i < candles.size(); i++) {
+                candles.get(i).id = saved.get(i).getId();
+            }
+            candleCache.onFlushed(saved);
+            logger.debug("Flushed {} candles ({} closed)", batch.size(), retired.size());
+        } catch (Exception e) {
+            logger.error("Failed to flush {} candles, will retry: {}", batch.size(), e.getMessage(), e);
+            if (e instanceof DataIntegrityViolationException) {
+                adoptStoredRows(candles);
+            }
+            for (OpenCandle candle : retired) {
+                if (!closedCandles.contains(candle)) {
+                    closedCandles.add(candle);
+                }
+            }
+            for (OpenCandle candle : candles) {
+                if (!retired.contains(candle)) {
+                    CandleBook book = books.get(candle.artistId);
+                    synchronized (book) {
+                        candle.dirty = true;
+                    }
+                }
+            }
+        } finally {
+            flushingCandles = List.of();
+        }
+    }
+
+    // Another writer inserted a row for a candle we still meant to insert; update that row on the retry instead
+    private void adoptStoredRows(List<OpenCandle> candles) {
+        for (OpenCandle candle : candles) {
+            if (candle.id != null) {
+                continue;
+            }
+            try {
+                CandleData row = candleDataRepository.findByArtistIdAndTimeframeAndTimestamp(
+                        candle.artistId, candle.timeframe, periodTimestamp(candle.periodStart));
+                if (row != null) {
+                    candle.id = row.getId();
+                }
+            } catch (Exception e) {
+                logger.warn("Could not look up stored candle for {} {}: {}", candle.artistId, candle.timeframe.getValue(), e.getMessage());
+            }
+        }
+    }
+
+    // Moves a level to the trade's period: the old candle closes into its parent, and the parent rolls first if needed
+    private void roll(CandleBook book, int level, long[] starts) {
+        OpenCandle old = book.levels[level];
+        if (level + 1 < TIMEFRAMES.length) {
+            OpenCandle parent = book.levels[level + 1];
+            if (old != null) {
+                parent.merge(old);
+            }
+            if (parent == null || parent.periodStart != starts[level + 1]) {
+                roll(book, level + 1, starts);
+            }
+        }
+        if (old != null && old.hasData && old.dirty) {
+            closedCandles.add(old);
+        }
+        book.levels[level] = load(book.artistId, level, starts);
+    }
+
+    private OpenCandle load(String artistId, int level, long[] starts) {
+        Timeframe tf = TIMEFRAMES[level];
+        CandleData row = candleDataRepository.findByArtistIdAndTimeframeAndTimestamp(artistId, tf, periodTimestamp(starts[level]));
+        if (row == null || level == 0) {
+            return restore(artistId, level, starts[level], row, List.of(), false);
+        }
+        Timeframe source = TIMEFRAMES[level - 1];
+        List<CandleData> closedChildren = candleDataRepository.findRange(artistId, source,
+                periodTimestamp(starts[level]), periodTimestamp(starts[level - 1]));
+        boolean openChildStored = candleDataRepository.findByArtistIdAndTimeframeAndTimestamp(
+                artistId, source, periodTimestamp(starts[level - 1])) != null;
+        return restore(artistId, level, starts[level], row, closedChildren, openChildStored);
+    }
+
+    // Rebuilds a level's base from the table: the row itself at 1m, the closed children above it
+    private static OpenCandle restore(String artistId, int level, long periodStart, CandleData row,
+                                      List<CandleData> closedChildren, boolean openChildStored) {
+        OpenCandle candle = new OpenCandle(artistId, TIMEFRAMES[level], periodStart);
+        if (row != null) {
+            candle.id = row.getId();
+        }
+        if (!closedChildren.isEmpty()) {
+            for (CandleData child : closedChildren) {
+                candle.merge(fromEntity(child, periodStart));
+            }
+        } else if (row != null && (level == 0 || !openChildStored)) {
+            candle.merge(fromEntity(row, periodStart));
+        }
+        candle.dirty = false;
+        return candle;
+    }
+
+    // A closed candle of this period that has not reached the table yet, queued or being flushed right now
+    private OpenCandle findClosedCandle(String artistId, Timeframe tf, long periodStart) {
+        for (OpenCandle candle : flushingCandles) {
+            if (candle.artistId.equals(artistId) && candle.timeframe == tf && candle.periodStart == periodStart) {
+                return candle;
+            }
+        }
+        for (OpenCandle candle : closedCandles) {
+            if (candle.artistId.equals(artistId) && candle.timeframe == tf && candle.periodStart == periodStart) {
+                return candle;
+            }
+        }
+        return null;
+    }
+
+    private void applyToStoredCandle(Trade trade, Timeframe tf, long periodStart) {
+        BigDecimal priceUsd = trade.getPriceInUsd();
+        BigDecimal volumeTokens = new BigDecimal(trade.getAmount());
+        LocalDateTime periodTimestamp = periodTimestamp(periodStart);
+
+        CandleData candle = candleDataRepository.findByArtistIdAndTimeframeAndTimestamp(trade.getArtistId(), tf, periodTimestamp);
+        if (candle == null) {
+            candle = new CandleData(trade.getArtistId(), tf, periodTimestamp, priceUsd, priceUsd, priceUsd, priceUsd, volumeTokens);
+        } else {
+            candle.setHigh(candle.getHigh().max(priceUsd));
+            candle.setLow(candle.getLow().min(priceUsd));
+            candle.setClose(priceUsd);
+            candle.setVolume(candle.getVolume().add(volumeTokens));
+        }
+        candle.setLastEventType(trade.getEventType());
+        candleDataRepository.save(candle);
+        candleCache.invalidate(trade.getArtistId(), tf);
+        logger.debug("Applied late trade {} to stored {} candle at {}", trade.getTxHash(), tf.getValue(), periodTimestamp);
+    }
+
+    private static OpenCandle fromEntity(CandleData stored, long periodStart) {
+        OpenCandle candle = new OpenCandle(stored.getArtistId(), stored.getTimeframe(), periodStart);
+        candle.hasData = true;
+        candle.open = toFixed(stored.getOpen(), PRICE_DECIMALS);
+        candle.high = toFixed(stored.getHigh(), PRICE_DECIMALS);
+        candle.low = toFixed(stored.getLow(), PRICE_DECIMALS);
+        candle.close = toFixed(stored.getClose(), PRICE_DECIMALS);
+        candle.volume = Optional.ofNullable(stored.getVolume()).orElse(BigDecimal.ZERO);
+        candle.lastEventType = stored.getLastEventType();
+        return candle;
+    }
+
+    private static long[] periodStarts(long epochSeconds) {
+        long[] starts = new long[TIMEFRAMES.length];
+        for (int i = 0; i < TIMEFRAMES.length; i++) {
+            long interval = TIMEFRAMES[i].getIntervalSeconds();
+            starts[i] = (epochSeconds / interval) * interval;
+        }
+        return starts;
+    }
+
+    private static LocalDateTime periodTimestamp(long periodStart) {
+        return LocalDateTime.ofEpochSecond(periodStart, 0, ZoneOffset.UTC);
+    }
+
+    static long toFixed(BigDecimal value, int decimals) {
+        return Optional.ofNullable(value).orElse(BigDecimal.ZERO)
+                .setScale(decimals, RoundingMode.HALF_UP).unscaledValue().longValueExact();
+    }
+
+    static BigDecimal fromFixed(long value, int decimals) {
+        return BigDecimal.valueOf(value, decimals);
+    }
+}
@@ -0,0 +1,106 @@
+package com.musicinvestment.musicapp.service;
+
+import com.musicinvestment.musicapp.model.CandleData;
+import com.musicinvestment.musicapp.model.Timeframe;
+import com.musicinvestment.musicapp.model.Trade;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.EnumSet;
+import java.util.Set;
+import java.util.function.Consumer;
+
+/**
+ * Streaming roll-up: ticks build 1m candles, every closed 1m candle is merged into the open 5m
+ * candle, every closed 5m into 15m, and so on up to 1W. Input must arrive in time order. Closed
+ * candles of the requested timeframes go to the sink, so one pass produces every timeframe, and a
+ * single timeframe can be rebuilt from the stored candles of its source without rereading trades.
+ */
+public class CandleRollup {
+
+    private static final Timeframe[] TIMEFRAMES = Timeframe.values();
+
+    private final String artistId;
+    private final Set<Timeframe> emitted;
+    private final Consumer<CandleData> sink;
+    private final int lastStage;
+    private final CandleData[] open = new CandleData[TIMEFRAMES.length];
+
+    public CandleRollup(String artistId, Set<Timeframe> emitted, Consumer<CandleData> sink) {
+        if (emitted.isEmpty()) {
+            throw new IllegalArgumentException("No timeframes to emit");
+        }
+        this.artistId = artistId;
+        this.emitted = EnumSet.copyOf(emitted);
+        this.sink = sink;
+        this.lastStage = this.emitted.stream().mapToInt(Enum::ordinal).max().getAsInt();
+    }
+
+    public static CandleRollup allTimeframes(String artistId, Consumer<CandleData> sink) {
+        return new CandleRollup(artistId, EnumSet.allOf(Timeframe.class), sink);
+    }
+
+    // One trade (or price tick) into the 1m stage
+    public void acceptTick(LocalDateTime timestamp, BigDecimal price, BigDecimal volume, Trade.EventType eventType) {
+        CandleData tick = new CandleData(artistId, Timeframe.ONE_MINUTE, timestamp, price, price, price, price, volume);
+        tick.setLastEventType(eventType);
+        merge(0, tick);
+    }
+
+    // A closed candle of some timeframe into the stage above it
+    public void acceptCandle(CandleData candle) {
+        int stage = candle.getTimeframe().ordinal() + 1;
+        if (stage <= lastStage) {
+            merge(stage, candle);
+        }
+    }
+
+    // Closes every open candle, finest first, so each one still reaches its parent
+    public void finish() {
+        for (int stage = 0; stage <= lastStage; stage++) {
+            close(stage);
+        }
+    }
+
+    private void merge(int stage, CandleData child) {
+        Timeframe tf = TIMEFRAMES[stage];
+        LocalDateTime period = periodStart(child.getTimestamp(), tf);
+        CandleData current = open[stage];
+        if (current != null && !current.getTimestamp().equals(period)) {
+            close(stage);
+            current = null;
+        }
+        if (current == null) {
+            current = new CandleData(artistId, tf, period,
+                    child.getOpen(), child.getHigh(), child.getLow(), child.getClose(), child.getVolume());
+            open[stage] = current;
+        } else {
+            current.setHigh(current.getHigh().max(child.getHigh()));
+            current.setLow(current.getLow().min(child.getLow()));
+            current.setClose(child.getClose());
+            current.setVolume(current.getVolume().add(child.getVolume()));
+        }
+        current.setLastEventType(child.getLastEventType());
+    }
+
+    private void close(int stage) {
+        CandleData closed = open[stage];
+        if (closed == null) {
+            return;
+        }
+        open[stage] = null;
+        if (emitted.contains(TIMEFRAMES[stage])) {
+            sink.accept(closed);
+        }
+        if (stage < lastStage) {
+            merge(stage + 1, closed);
+        }
+    }
+
+    static LocalDateTime periodStart(LocalDateTime timestamp, Timeframe tf) {
+        long interval = tf.getIntervalSeconds();
+        long epoch = timestamp.toEpochSecond(ZoneOffset.UTC);
+        return LocalDateTime.ofEpochSecond((epoch / interval) * interval, 0, ZoneOffset.UTC);
+    }
+}
@@ -0,0 +1,232 @@
+package com.musicinvestment.musicapp.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.web3j.abi.EventEncoder;
+import org.web3j.abi.datatypes.Event;
+import org.web3j.protocol.Web3j;
+import org.web3j.protocol.core.DefaultBlockParameter;
+import org.web3j.protocol.core.methods.request.EthFilter;
+import org.web3j.protocol.core.methods.response.EthLog;
+import org.web3j.protocol.core.methods.response.Log;
+
+import jakarta.annotation.PreDestroy;
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.LongSupplier;
+
+/**
+ * Polls the node with ONE log filter covering every subscribed artist contract and every
+ * registered event topic, then routes each log to its handler by topic and contract address.
+ * Contracts can be added at any time; they are picked up on the next poll. Block cursors trail
+ * the dispatched block: they only move over blocks whose trades have reached the database.
+ */
+@Service
+public class ContractEventIngestionService {
+
+    private static final Logger logger = LoggerFactory.getLogger(ContractEventIngestionService.class);
+
+    @FunctionalInterface
+    public interface ContractLogHandler {
+        void handle(String artistId, String contractAddress, Log log);
+    }
+
+    private final Web3j web3j;
+    private final BlockCursorService blockCursorService;
+    private final long pollIntervalMs;
+    private final long maxBlockRange;
+
+    // lowercase contract address -> artistId
+    private final Map<String, String> subscribedContracts = new ConcurrentHashMap<>();
+    // topic0 hash -> handler
+    private final Map<String, ContractLogHandler> handlersByTopic = new ConcurrentHashMap<>();
+
+    private final ScheduledExecutorService poller = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread t = new Thread(r, "contract-event-poller");
+        t.setDaemon(true);
+        return t;
+    });
+    private final AtomicBoolean started = new AtomicBoolean(false);
+
+    // Last block whose logs have been dispatched; null until the first head lookup succeeds
+    private volatile BigInteger lastProcessedBlock;
+    // Last block the block cursors were moved to; never ahead of lastProcessedBlock
+    private volatile BigInteger committedBlock;
+    // Lowest block that still has trades on their way to the database
+    private volatile LongSupplier unpersistedBlockFloor = () -> Long.MAX_VALUE;
+
+    public ContractEventIngestionService(
+            Web3j web3j,
+            BlockCursorService blockCursorService,
+            @Value("${blockchain.events.poll-interval-ms:5000}") long pollIntervalMs,
+            @Value("${blockchain.events.max-block-range:2000}") long maxBlockRange) {
+        this.web3j = web3j;
+        this.blockCursorService = blockCursorService;
+        this.pollIntervalMs = pollIntervalMs;
+        this.maxBlockRange = maxBlockRange;
+    }
+
+    public void registerHandler(Event event, ContractLogHandler handler) {
+        String topic = EventEncoder.encode(event);
+        handlersByTopic.put(topic, handler);
+        logger.info("Registered log handler for event {} (topic {})", event.getName(), topic);
+    }
+
+    public boolean addContract(String contractAddress, String artistId) {
+        String normalized = contractAddress.toLowerCase();
+        String previous = subscribedContracts.putIfAbsent(normalized, artistId);
+        if (previous != null) {
+            return false;
+        }
+        logger.info("Added contract {} (artistId {}) to multiplexed log filter, {} contracts total",
+                normalized, artistId, subscribedContracts.size());
+        return true;
+    }
+
+    public boolean isSubscribed(String contractAddress) {
+        return contractAddress != null && subscribedContracts.containsKey(contractAddress.toLowerCase());
+    }
+
+    public String getArtistId(String contractAddress) {
+        return contractAddress != null ? subscribedContracts.get(contractAddress.toLowerCase()) : null;
+    }
+
+    public Set<String> getSubscribedContracts() {
+        return Set.copyOf(subscribedContracts.keySet());
+    }
+
+    public BigInteger getLastProcessedBlock() {
+        return lastProcessedBlock;
+    }
+
+    // Cursors of subscribed contracts that are in sync with the poller are at this block
+    public BigInteger getCommittedBlock() {
+        return committedBlock;
+    }
+
+    public void setUnpersistedBlockFloor(LongSupplier unpersistedBlockFloor) {
+        this.unpersistedBlockFloor = unpersistedBlockFloor;
+    }
+
+    // Live polling resumes right after startAfterBlock, the block the startup catch-up ran to.
+    // Null means "whatever the head is on the first poll".
+    public void start(BigInteger startAfterBlock) {
+        if (!started.compareAndSet(false, true)) {
+            return;
+        }
+        lastProcessedBlock = startAfterBlock;
+        committedBlock = startAfterBlock;
+        poller.scheduleWithFixedDelay(this::pollSafely, 0, pollIntervalMs, TimeUnit.MILLISECONDS);
+        logger.info("Started multiplexed contract event poller: interval={}ms, maxBlockRange={}", pollIntervalMs, maxBlockRange);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        poller.shutdownNow();
+    }
+
+    private void pollSafely() {
+        try {
+            poll();
+            commitPersisted();
+        } catch (Exception e) {
+            // Never let an exception cancel the scheduled task
+            logger.error("Contract event poll failed: {}", e.getMessage(), e);
+        }
+    }
+
+    private void poll() throws Exception {
+        BigInteger head = web3j.ethBlockNumber().send().getBlockNumber();
+        if (lastProcessedBlock == null) {
+            lastProcessedBlock = head;
+            committedBlock = head;
+            logger.info("Contract event poller starting after block {}", head);
+            return;
+        }
+        if (subscribedContracts.isEmpty() || handlersByTopic.isEmpty()) {
+            lastProcessedBlock = head;
+            return;
+        }
+        if (head.compareTo(lastProcessedBlock) <= 0) {
+            return;
+        }
+
+        BigInteger fromBlock = lastProcessedBlock.add(BigInteger.ONE);
+        BigInteger toBlock = head.min(fromBlock.add(BigInteger.valueOf(maxBlockRange - 1)));
+
+        List<String> addresses = new ArrayList<>(subscribedContracts.keySet());
+        EthFilter filter = new EthFilter(
+                DefaultBlockParameter.valueOf(fromBlock),
+                DefaultBlockParameter.valueOf(toBlock),
+                addresses);
+        filter.addOptionalTopics(handlersByTopic.keySet().toArray(new String[0]));
+
+        EthLog ethLog = web3j.ethGetLogs(filter).send();
+        if (ethLog.hasError()) {
+            logger.warn("eth_getLogs failed for blocks {}-{}: {}", fromBlock, toBlock, ethLog.getError().getMessage());
+            return;
+        }
+
+        List<EthLog.LogResult> results = ethLog.getLogs();
+        if (results != null && !results.isEmpty()) {
+            logger.debug("Dispatching {} logs from blocks {}-{}", results.size(), fromBlock, toBlock);
+            for (EthLog.LogResult result : results) {
+                if (result.get() instanceof Log log) {
+                    dispatch(log);
+                }
+            }
+        }
+        lastProcessedBlock = toBlock;
+    }
+
+    // Runs after every poll, so trades stored since the last one are committed even without new blocks
+    private void commitPersisted() {
+        BigInteger dispatched = lastProcessedBlock;
+        BigInteger committed = committedBlock;
+        if (dispatched == null || committed == null) {
+            return;
+        }
+        BigInteger safe = dispatched.min(BigInteger.valueOf(unpersistedBlockFloor.getAsLong()).subtract(BigInteger.ONE));
+        if (safe.compareTo(committed) <= 0) {
+            return;
+        }
+        // Published before the update, so a backfill joining the poller never lands behind it
+        committedBlock = safe;
+        try {
+            blockCursorService.advanceContiguous(new ArrayList<>(subscribedContracts.keySet()),
+                    committed.longValueExact() + 1, safe.longValueExact());
+        } catch (RuntimeException e) {
+            committedBlock = committed;
+            throw e;
+        }
+    }
+
+    private void dispatch(Log log) {
+        if (log.isRemoved() || log.getTopics() == null || log.getTopics().isEmpty()) {
+            return;
+        }
+        String contractAddress = log.getAddress() != null ? log.getAddress().toLowerCase() : null;
+        String artistId = contractAddress != null ? subscribedContracts.get(contractAddress) : null;
+        ContractLogHandler handler = handlersByTopic.get(log.getTopics().get(0));
+        if (artistId == null || handler == null) {
+            logger.debug("No route for log address={}, topic={}", log.getAddress(), log.getTopics().get(0));
+            return;
+        }
+        try {
+            handler.handle(artistId, contractAddress, log);
+        } catch (Exception e) {
+            logger.error("Handler failed for log in tx {} (contract {}): {}",
+                    log.getTransactionHash(), contractAddress, e.getMessage(), e);
+        }
+    }
+}
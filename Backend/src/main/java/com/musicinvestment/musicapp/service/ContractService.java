@@ -6,12 +6,14 @@ import com.musicinvestment.musicapp.repository.ArtistRepository;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.cache.annotation.CacheEvict;
-import org.springframework.cache.annotation.Cacheable;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
 import org.springframework.stereotype.Service;
 import org.web3j.crypto.Credentials;
 import org.web3j.protocol.Web3j;
 import org.web3j.tx.FastRawTransactionManager;
 import org.web3j.tx.TransactionManager;
+import org.web3j.tx.gas.ContractGasProvider;
 import org.web3j.tx.gas.DefaultGasProvider;
 import org.web3j.utils.Numeric;
 
@@ -22,7 +24,10 @@ import java.math.BigDecimal;
 import java.math.BigInteger;
 import java.math.RoundingMode;
 import java.text.NumberFormat;
+import java.util.Collections;
+import java.util.LinkedHashMap;
 import java.util.Locale;
+import java.util.Map;
 import java.util.Optional;
 import java.util.regex.Pattern;
 
@@ -30,29 +35,48 @@ import java.util.regex.Pattern;
 public class ContractService {
 
     private static final Logger logger = LoggerFactory.getLogger(ContractService.class);
+    private static final String CONTRACT_ADDRESSES = "contractAddresses";
     private static final Pattern ETHEREUM_ADDRESS_PATTERN = Pattern.compile("^0x[a-fA-F0-9]{40}$", Pattern.CASE_INSENSITIVE);
     private static final BigDecimal WEI_TO_ETH = new BigDecimal("1000000000000000000"); // 10^18
     private static final BigDecimal ETH_USD_SCALE = new BigDecimal("100000000");
-    private static final BigInteger FALLBACK_ETH_USD_PRICE = BigInteger.valueOf(3_500L).multiply(BigInteger.TEN.pow(8)); // $3500 * 10^8
 
     private final ArtistSharesFactory artistSharesFactory;
     private final ArtistRepository artistRepository;
     private final Web3j web3j;
     private final String privateKey;
+    private final EthUsdPriceService ethUsdPriceService;
+    private final ArtistCacheService artistCacheService;
+    private final CacheManager cacheManager;
 
     // Shared reusable components
     private Credentials credentials;
     private TransactionManager transactionManager;
+    private final ContractGasProvider gasProvider = new DefaultGasProvider();
+    // lowercase contract address -> wrapper, least recently used evicted first
+    private final Map<String, ArtistSharesToken> tokenContracts;
 
     public ContractService(
             ArtistSharesFactory artistSharesFactory,
             ArtistRepository artistRepository,
             Web3j web3j,
-            @Value("${web3j.private-key}") String privateKey) {
+            @Value("${web3j.private-key}") String privateKey,
+            EthUsdPriceService ethUsdPriceService,
+            ArtistCacheService artistCacheService,
+            CacheManager cacheManager,
+            @Value("${contract.token-cache.max-entries:500}") int maxCachedTokens) {
         this.artistSharesFactory = artistSharesFactory;
         this.artistRepository = artistRepository;
         this.web3j = web3j;
         this.privateKey = privateKey;
+        this.ethUsdPriceService = ethUsdPriceService;
+        this.artistCacheService = artistCacheService;
+        this.cacheManager = cacheManager;
+        this.tokenContracts = Collections.synchronizedMap(new LinkedHashMap<>(64, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, ArtistSharesToken> eldest) {
+                return size() > maxCachedTokens;
+            }
+        });
     }
 
     @PostConstruct
@@ -67,8 +91,22 @@ public class ContractService {
         }
     }
 
-    @Cacheable(value = "contractAddresses", key = "#artistId")
+    // Programmatic rather than @Cacheable so the calls from this class are cached too; null (no token yet)
+    // is cached like before until the mapping changes or the entry expires
     public String getContractAddress(String artistId) {
+        Cache cache = cacheManager.getCache(CONTRACT_ADDRESSES);
+        Cache.ValueWrapper cached = cache != null ? cache.get(artistId) : null;
+        if (cached != null) {
+            return (String) cached.get();
+        }
+        String address = artistCacheService.singleFlight(CONTRACT_ADDRESSES, artistId, () -> lookupContractAddress(artistId));
+        if (cache != null) {
+            cache.put(artistId, address);
+        }
+        return address;
+    }
+
+    private String lookupContractAddress(String artistId) {
         logger.info("Fetching contract address for artistId: {}", artistId);
         try {
             Optional<String> contractAddressOpt = artistRepository.findContractAddressByArtistId(artistId);
@@ -89,7 +127,7 @@ public class ContractService {
             }
 
             artistRepository.updateContractAddress(artistId, address);
-            evictPriceCaches(artistId); // Clear price/volume caches on new deployment
+            evictPriceCaches(artistId); // Mapping changed: prices and volumes of the old contract are stale
             logger.info("Deployed/updated contract for artistId {}: {}", artistId, address);
             return address;
 
@@ -99,8 +137,11 @@ public class ContractService {
         }
     }
 
-    @Cacheable(value = "prices", key = "#artistId")
     public String getCurrentPrice(String artistId) {
+        return artistCacheService.getOrLoad(ArtistCacheService.PRICES, artistId, String.class, () -> loadCurrentPrice(artistId));
+    }
+
+    private String loadCurrentPrice(String artistId) {
         logger.debug("Fetching formatted price for artistId: {}", artistId);
         try {
             BigDecimal priceUsd = getCurrentPriceRaw(artistId);
@@ -111,8 +152,11 @@ public class ContractService {
         }
     }
 
-    @Cacheable(value = "pricesRaw", key = "#artistId")
     public BigDecimal getCurrentPriceRaw(String artistId) {
+        return artistCacheService.getOrLoad(ArtistCacheService.PRICES_RAW, artistId, BigDecimal.class, () -> loadCurrentPriceRaw(artistId));
+    }
+
+    private BigDecimal loadCurrentPriceRaw(String artistId) {
         logger.debug("Fetching raw price for artistId: {}", artistId);
         try {
             String contractAddress = getContractAddress(artistId);
@@ -136,8 +180,11 @@ public class ContractService {
         }
     }
 
-    @Cacheable(value = "volumes", key = "#artistId")
     public String getTotalVolumeTraded(String artistId) {
+        return artistCacheService.getOrLoad(ArtistCacheService.VOLUMES, artistId, String.class, () -> loadTotalVolumeTraded(artistId));
+    }
+
+    private String loadTotalVolumeTraded(String artistId) {
         logger.debug("Fetching formatted volume for artistId: {}", artistId);
         try {
             BigDecimal volumeUsd = getTotalVolumeTradedRaw(artistId);
@@ -148,8 +195,11 @@ public class ContractService {
         }
     }
 
-    @Cacheable(value = "volumesRaw", key = "#artistId")
     public BigDecimal getTotalVolumeTradedRaw(String artistId) {
+        return artistCacheService.getOrLoad(ArtistCacheService.VOLUMES_RAW, artistId, BigDecimal.class, () -> loadTotalVolumeTradedRaw(artistId));
+    }
+
+    private BigDecimal loadTotalVolumeTradedRaw(String artistId) {
         logger.debug("Fetching raw volume for artistId: {}", artistId);
         try {
             String contractAddress = getContractAddress(artistId);
@@ -160,7 +210,7 @@ public class ContractService {
 
             ArtistSharesToken token = loadTokenContract(contractAddress);
             BigInteger volumeWei = token.totalVolumeTraded().send();
-            BigInteger ethUsdPrice = token.getEthUsdPrice().send();
+            BigInteger ethUsdPrice = ethUsdPriceService.getEthUsdPrice();
 
             return convertWeiToUsd(volumeWei, ethUsdPrice);
 
@@ -170,13 +220,22 @@ public class ContractService {
         }
     }
 
+    // Wrappers are immutable once loaded, so one per address is shared by every caller
     public ArtistSharesToken loadTokenContract(String contractAddress) {
-        if (contractAddress == null || !isValidEthereumAddress(contractAddress) || isZeroAddress(contractAddress)) {
+        if (contractAddress == null) {
+            throw new IllegalArgumentException("Invalid contract address: null");
+        }
+        String key = contractAddress.toLowerCase();
+        ArtistSharesToken cached = tokenContracts.get(key);
+        if (cached != null) {
+            return cached;
+        }
+        if (!isValidEthereumAddress(contractAddress) || isZeroAddress(contractAddress)) {
             throw new IllegalArgumentException("Invalid contract address: " + contractAddress);
         }
         try {
-            ArtistSharesToken token = ArtistSharesToken.load(
-                    contractAddress, web3j, transactionManager, new DefaultGasProvider());
+            ArtistSharesToken token = ArtistSharesToken.load(contractAddress, web3j, transactionManager, gasProvider);
+            tokenContracts.put(key, token);
             logger.debug("Loaded token contract: {}", contractAddress);
             return token;
         } catch (Exception e) {
@@ -185,6 +244,12 @@ public class ContractService {
         }
     }
 
+    public void invalidateTokenContract(String contractAddress) {
+        if (contractAddress != null && tokenContracts.remove(contractAddress.toLowerCase()) != null) {
+            logger.info("Dropped cached token contract wrapper for {}", contractAddress);
+        }
+    }
+
     private boolean isValidEthereumAddress(String address) {
         if (address == null) return false;
         boolean matches = ETHEREUM_ADDRESS_PATTERN.matcher(address).matches();
@@ -208,7 +273,7 @@ public class ContractService {
             return BigDecimal.ZERO;
         }
         BigInteger effectiveEthUsd = (ethUsdPrice == null || ethUsdPrice.signum() == 0)
-                ? FALLBACK_ETH_USD_PRICE
+                ? EthUsdPriceService.FALLBACK_ETH_USD_PRICE
                 : ethUsdPrice;
 
         BigDecimal eth = new BigDecimal(weiValue).divide(WEI_TO_ETH, 18, RoundingMode.HALF_UP);
@@ -234,13 +299,14 @@ public class ContractService {
         }
     }
 
-    @CacheEvict(value = {"prices", "pricesRaw", "volumes", "volumesRaw"}, key = "#artistId")
     public void evictPriceCaches(String artistId) {
+        artistCacheService.invalidateArtist(artistId);
         logger.debug("Evicted price/volume caches for artistId: {}", artistId);
     }
 
     @CacheEvict(value = "contractAddresses", key = "#artistId")
     public void evictContractAddressCache(String artistId) {
+        artistCacheService.invalidateArtist(artistId);
         logger.info("Evicted contractAddresses cache for artistId: {}", artistId);
     }
 }
\ No newline at end of file
@@ -0,0 +1,248 @@
+package com.musicinvestment.musicapp.service;
+
+import com.musicinvestment.musicapp.contract.ArtistSharesToken;
+import com.musicinvestment.musicapp.dto.TokenSnapshot;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.web3j.abi.FunctionEncoder;
+import org.web3j.abi.FunctionReturnDecoder;
+import org.web3j.abi.TypeReference;
+import org.web3j.abi.datatypes.Function;
+import org.web3j.abi.datatypes.Type;
+import org.web3j.abi.datatypes.generated.Uint256;
+import org.web3j.protocol.Web3j;
+import org.web3j.protocol.core.BatchRequest;
+import org.web3j.protocol.core.BatchResponse;
+import org.web3j.protocol.core.DefaultBlockParameter;
+import org.web3j.protocol.core.DefaultBlockParameterName;
+import org.web3j.protocol.core.Response;
+import org.web3j.protocol.core.methods.request.Transaction;
+import org.web3j.protocol.core.methods.response.EthCall;
+
+import java.io.IOException;
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Reads every view value financials need for a token in ONE JSON-RPC batch of eth_calls,
+ * all pinned to the same block so the snapshot is internally consistent. Several tokens can
+ * share a batch, so a page of artists costs a handful of round trips instead of one per call.
+ */
+@Service
+public class ContractStateReader {
+
+    private static final Logger logger = LoggerFactory.getLogger(ContractStateReader.class);
+    private static final BigInteger ONE_TOKEN = BigInteger.TEN.pow(18);
+
+    private static final Function ETH_USD_PRICE_FUNCTION = uint256View(ArtistSharesToken.FUNC_GETETHUSDPRICE);
+
+    // Order matters: responses come back in request order
+    private static final List<Function> SNAPSHOT_FUNCTIONS = List.of(
+            uint256View(ArtistSharesToken.FUNC_TOTALSUPPLY),
+            uint256View(ArtistSharesToken.FUNC_TOKENSSOLD),
+            uint256View(ArtistSharesToken.FUNC_TOKENSINCURVE),
+            uint256View(ArtistSharesToken.FUNC_ETHINCURVE),
+            uint256View(ArtistSharesToken.FUNC_GETCURRENTPRICEMICROUSD),
+            new Function(ArtistSharesToken.FUNC_GETETHFORTOKENS,
+                    List.<Type>of(new Uint256(ONE_TOKEN)),
+                    List.<TypeReference<?>>of(new TypeReference<Uint256>() {})),
+            uint256View(ArtistSharesToken.FUNC_DAILYSELLLIMITUSD));
+
+    private final Web3j web3j;
+    private final ContractEventIngestionService eventIngestionService;
+    private final int maxCallsPerBatch;
+
+    public ContractStateReader(
+            Web3j web3j,
+            ContractEventIngestionService eventIngestionService,
+            @Value("${blockchain.rpc.max-calls-per-batch:200}") int maxCallsPerBatch) {
+        this.web3j = web3j;
+        this.eventIngestionService = eventIngestionService;
+        this.maxCallsPerBatch = maxCallsPerBatch;
+    }
+
+    // Pins the read to the last block the event poller processed, so on-chain state and stored trades line up.
+    // Nodes that have pruned that block's state get a retry at "latest".
+    public TokenSnapshot readSnapshot(String contractAddress) throws IOException {
+        BigInteger pinnedBlock = eventIngestionService.getLastProcessedBlock();
+        if (pinnedBlock != null) {
+            try {
+                return readSnapshot(contractAddress, pinnedBlock);
+            } catch (IOException | IllegalStateException e) {
+                logger.warn("Snapshot read for {} at block {} failed, retrying at latest: {}",
+                        contractAddress, pinnedBlock, e.getMessage());
+            }
+        }
+        return readSnapshot(contractAddress, null);
+    }
+
+    public TokenSnapshot readSnapshot(String contractAddress, BigInteger blockNumber) throws IOException {
+        BatchRequest batch = web3j.newBatch();
+        addSnapshotCalls(batch, contractAddress, blockParameter(blockNumber));
+        List<? extends Response<?>> responses = send(batch, 1);
+        TokenSnapshot snapshot = toSnapshot(contractAddress, blockNumber, responses, 0);
+        logger.debug("Read snapshot for {} at block {} in one batch", contractAddress, blockNumber != null ? blockNumber : "latest");
+        return snapshot;
+    }
+
+    // Same as readSnapshot, but no thread waits on the node while the batch is in flight
+    public CompletableFuture<TokenSnapshot> readSnapshotAsync(String contractAddress) {
+        BigInteger pinnedBlock = eventIngestionService.getLastProcessedBlock();
+        if (pinnedBlock == null) {
+            return readOneAsync(contractAddress, null);
+        }
+        return readOneAsync(contractAddress, pinnedBlock).exceptionallyCompose(e -> {
+            logger.warn("Snapshot read for {} at block {} failed, retrying at latest: {}",
+                    contractAddress, pinnedBlock, e.getMessage());
+            return readOneAsync(contractAddress, null);
+        });
+    }
+
+    public Map<String, TokenSnapshot> readSnapshots(Collection<String> contractAddresses) {
+        return readSnapshotsAsync(contractAddresses).join();
+    }
+
+    // Snapshots for many contracts at one block, packing up to maxCallsPerBatch eth_calls into each
+    // JSON-RPC batch and sending the batches concurrently. A contract whose calls fail is left out of
+    // the result rather than failing the others.
+    public CompletableFuture<Map<String, TokenSnapshot>> readSnapshotsAsync(Collection<String> contractAddresses) {
+        BigInteger pinnedBlock = eventIngestionService.getLastProcessedBlock();
+        List<String> addresses = new ArrayList<>(new LinkedHashSet<>(contractAddresses));
+        int contractsPerBatch = Math.max(1, maxCallsPerBatch / SNAPSHOT_FUNCTIONS.size());
+
+        List<CompletableFuture<Map<String, TokenSnapshot>>> chunks = new ArrayList<>();
+        for (int i = 0; i < addresses.size(); i += contractsPerBatch) {
+            List<String> chunk = addresses.subList(i, Math.min(addresses.size(), i + contractsPerBatch));
+            chunks.add(readChunkAsync(chunk, pinnedBlock)
+                    .exceptionallyCompose(e -> {
+                        logger.warn("Batched snapshot read of {} contracts at block {} failed, retrying at latest: {}",
+                                chunk.size(), pinnedBlock, e.getMessage());
+                        return readChunkAsync(chunk, null);
+                    })
+                    .exceptionally(e -> {
+                        logger.error("Batched snapshot read of {} contracts failed: {}", chunk.size(), e.getMessage());
+                        return Map.of();
+                    }));
+        }
+
+        return CompletableFuture.allOf(chunks.toArray(new CompletableFuture[0])).thenApply(ignored -> {
+            Map<String, TokenSnapshot> snapshots = new HashMap<>();
+            for (CompletableFuture<Map<String, TokenSnapshot>> chunk : chunks) {
+                snapshots.putAll(chunk.join());
+            }
+            logger.debug("Read {} of {} snapshots in {} batches", snapshots.size(), addresses.size(), chunks.size());
+            return snapshots;
+        });
+    }
+
+    private CompletableFuture<TokenSnapshot> readOneAsync(String contractAddress, BigInteger blockNumber) {
+        BatchRequest batch = web3j.newBatch();
+        addSnapshotCalls(batch, contractAddress, blockParameter(blockNumber));
+        return batch.sendAsync()
+                .thenApply(response -> toSnapshot(contractAddress, blockNumber, checkSize(response, 1), 0));
+    }
+
+    private CompletableFuture<Map<String, TokenSnapshot>> readChunkAsync(List<String> contractAddresses, BigInteger blockNumber) {
+        DefaultBlockParameter block = blockParameter(blockNumber);
+        BatchRequest batch = web3j.newBatch();
+        for (String contractAddress : contractAddresses) {
+            addSnapshotCalls(batch, contractAddress, block);
+        }
+        return batch.sendAsync().thenApply(response -> {
+            List<? extends Response<?>> responses = checkSize(response, contractAddresses.size());
+            Map<String, TokenSnapshot> snapshots = new HashMap<>();
+            for (int i = 0; i < contractAddresses.size(); i++) {
+                String contractAddress = contractAddresses.get(i);
+                try {
+                    snapshots.put(contractAddress, toSnapshot(contractAddress, blockNumber, responses, i * SNAPSHOT_FUNCTIONS.size()));
+                } catch (IllegalStateException e) {
+                    logger.warn("Snapshot for {} unavailable: {}", contractAddress, e.getMessage());
+                }
+            }
+            return snapshots;
+        });
+    }
+
+    // The feed is shared by every artist token, so any deployed token can answer this
+    public BigInteger readEthUsdPrice(String contractAddress) throws IOException {
+        EthCall call = web3j.ethCall(
+                Transaction.createEthCallTransaction(null, contractAddress, FunctionEncoder.encode(ETH_USD_PRICE_FUNCTION)),
+                DefaultBlockParameterName.LATEST).send();
+        return decodeRequired(call, ETH_USD_PRICE_FUNCTION);
+    }
+
+    private void addSnapshotCalls(BatchRequest batch, String contractAddress, DefaultBlockParameter block) {
+        for (Function function : SNAPSHOT_FUNCTIONS) {
+            batch.add(web3j.ethCall(
+                    Transaction.createEthCallTransaction(null, contractAddress, FunctionEncoder.encode(function)), block));
+        }
+    }
+
+    private List<? extends Response<?>> send(BatchRequest batch, int contracts) throws IOException {
+        return checkSize(batch.send(), contracts);
+    }
+
+    private List<? extends Response<?>> checkSize(BatchResponse response, int contracts) {
+        List<? extends Response<?>> responses = response.getResponses();
+        int expected = contracts * SNAPSHOT_FUNCTIONS.size();
+        if (responses.size() != expected) {
+            throw new IllegalStateException("Expected " + expected + " eth_call responses, got " + responses.size());
+        }
+        return responses;
+    }
+
+    // Responses are matched to their requests by id, so they are in request order; offset is the index of this contract's first call
+    private TokenSnapshot toSnapshot(String contractAddress, BigInteger blockNumber, List<? extends Response<?>> responses, int offset) {
+        TokenSnapshot snapshot = new TokenSnapshot();
+        snapshot.setContractAddress(contractAddress);
+        snapshot.setBlockNumber(blockNumber);
+        snapshot.setTotalSupply(decodeRequired(responses.get(offset), SNAPSHOT_FUNCTIONS.get(0)));
+        snapshot.setTokensSold(decodeRequired(responses.get(offset + 1), SNAPSHOT_FUNCTIONS.get(1)));
+        snapshot.setTokensInCurve(decodeRequired(responses.get(offset + 2), SNAPSHOT_FUNCTIONS.get(2)));
+        snapshot.setEthInCurve(decodeRequired(responses.get(offset + 3), SNAPSHOT_FUNCTIONS.get(3)));
+        snapshot.setPriceMicroUsd(decodeRequired(responses.get(offset + 4), SNAPSHOT_FUNCTIONS.get(4)));
+        // Reverts while nothing has been sold yet (division by tokensSold)
+        BigInteger ethForOne = decode(responses.get(offset + 5), SNAPSHOT_FUNCTIONS.get(5));
+        snapshot.setEthForOneToken(ethForOne != null ? ethForOne : BigInteger.ZERO);
+        snapshot.setDailySellLimitUsd(decodeRequired(responses.get(offset + 6), SNAPSHOT_FUNCTIONS.get(6)));
+        return snapshot;
+    }
+
+    private DefaultBlockParameter blockParameter(BigInteger blockNumber) {
+        return blockNumber != null ? DefaultBlockParameter.valueOf(blockNumber) : DefaultBlockParameterName.LATEST;
+    }
+
+    private BigInteger decodeRequired(Response<?> response, Function function) {
+        BigInteger value = decode(response, function);
+        if (value == null) {
+            String reason = response.hasError() ? response.getError().getMessage() : "empty or reverted result";
+            throw new IllegalStateException("eth_call " + function.getName() + " failed: " + reason);
+        }
+        return value;
+    }
+
+    @SuppressWarnings("rawtypes")
+    private BigInteger decode(Response<?> response, Function function) {
+        if (!(response instanceof EthCall call) || call.hasError() || call.isReverted()) {
+            return null;
+        }
+        String value = call.getValue();
+        if (value == null || value.equals("0x")) {
+            return null;
+        }
+        List<Type> decoded = FunctionReturnDecoder.decode(value, function.getOutputParameters());
+        return decoded.isEmpty() ? null : (BigInteger) decoded.get(0).getValue();
+    }
+
+    private static Function uint256View(String name) {
+        return new Function(name, List.of(), List.<TypeReference<?>>of(new TypeReference<Uint256>() {}));
+    }
+}
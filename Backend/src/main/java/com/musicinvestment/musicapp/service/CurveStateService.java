@@ -0,0 +1,333 @@
+package com.musicinvestment.musicapp.service;
+
+import com.musicinvestment.musicapp.dto.TokenSnapshot;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.math.BigInteger;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+
+/**
+ * In-memory bonding curve state per artist token, so financials need no eth_call on the hot path.
+ * Each token is seeded once from a snapshot pinned to a block the event poller has processed; after
+ * that, buys, sells, curve completion and sell limit updates are applied as they are ingested,
+ * replaying the contract's own arithmetic. Every applied event is kept in a short journal: a
+ * snapshot taken at block B plus the journaled events after B gives the current state, which is
+ * how a token is seeded while events keep arriving and how the periodic reconciliation compares
+ * the model with the chain. Drift (a mismatch at reconciliation, a negative balance, or an event
+ * price that the model cannot reproduce) reseeds the token from chain. Balances are only checked
+ * once a transaction's logs are all applied: buy and sell emit CurveCompleted before their own
+ * trade event, so the completion's ETH leaves the model before the trade's ETH has arrived.
+ */
+@Service
+public class CurveStateService {
+
+    private static final Logger logger = LoggerFactory.getLogger(CurveStateService.class);
+
+    // Constants of ArtistSharesToken.sol
+    private static final BigInteger BUY_FEE_BPS = BigInteger.valueOf(50);
+    private static final BigInteger BPS = BigInteger.valueOf(10_000);
+    private static final BigInteger SLOPE_NUMERATOR = BigInteger.valueOf(1_000_000_000_000L);
+    private static final BigInteger VIRTUAL_ETH = BigInteger.valueOf(50_000_000_000_000L);
+    private static final BigInteger VIRTUAL_SOLD = BigInteger.TEN.pow(20);
+    private static final BigInteger PRICE_DIVISOR = BigInteger.TEN.pow(16);
+    private static final BigInteger ONE_TOKEN = BigInteger.TEN.pow(18);
+
+    // One ingested event; sold and eth are added, a non-null sell limit or completes=true overwrite
+    private record Delta(long block, BigInteger sold, BigInteger eth, BigInteger dailySellLimitUsd, boolean completes) {}
+
+    private static final class CurveState {
+        private final String artistId;
+        private final String contractAddress;
+        private final Deque<Delta> journal = new ArrayDeque<>();
+        // Highest block among journal entries dropped for space; no snapshot older than this can be replayed
+        private long droppedThroughBlock = -1;
+        private boolean seeded;
+        private boolean seeding;
+        private long seededBlock;
+        private BigInteger totalSupply;
+        private BigInteger curveTokens;
+        private BigInteger tokensSold;
+        private BigInteger ethInCurve;
+        private BigInteger dailySellLimitUsd;
+        private boolean curveComplete;
+
+        private CurveState(String artistId, String contractAddress) {
+            this.artistId = artistId;
+            this.contractAddress = contractAddress;
+        }
+    }
+
+    private final ContractStateReader contractStateReader;
+    private final EthUsdPriceService ethUsdPriceService;
+    private final MeterRegistry meterRegistry;
+    private final boolean enabled;
+    private final int journalSize;
+    private final long driftToleranceBps;
+
+    private final Map<String, CurveState> states = new ConcurrentHashMap<>();
+
+    public CurveStateService(
+            ContractStateReader contractStateReader,
+            EthUsdPriceService ethUsdPriceService,
+            MeterRegistry meterRegistry,
+            @Value("${financials.curve-state.enabled:true}") boolean enabled,
+            @Value("${financials.curve-state.journal-size:512}") int journalSize,
+            @Value("${financials.curve-state.drift-tolerance-bps:100}") long driftToleranceBps) {
+        this.contractStateReader = contractStateReader;
+        this.ethUsdPriceService = ethUsdPriceService;
+        this.meterRegistry = meterRegistry;
+        this.enabled = enabled;
+        this.journalSize = Math.max(1, journalSize);
+        this.driftToleranceBps = driftToleranceBps;
+        logger.info("Curve state model configured: enabled={}, journalSize={}, driftToleranceBps={}",
+                enabled, journalSize, driftToleranceBps);
+    }
+
+    /**
+     * Starts journaling a token's events. Must run before the contract joins the event filter, so
+     * nothing emitted after the seeding snapshot's block can be missed.
+     */
+    public void track(String artistId, String contractAddress) {
+        if (enabled) {
+            states.computeIfAbsent(artistId, id -> new CurveState(id, contractAddress.toLowerCase()));
+        }
+    }
+
+    public void applyBuy(String artistId, BigInteger block, BigInteger amount, BigInteger ethSpent, BigInteger priceMicroUsd) {
+        BigInteger ethIn = ethSpent.subtract(ethSpent.multiply(BUY_FEE_BPS).divide(BPS));
+        apply(artistId, new Delta(block.longValueExact(), amount, ethIn, null, false), priceMicroUsd);
+    }
+
+    public void applySell(String artistId, BigInteger block, BigInteger amount, BigInteger ethReceived, BigInteger priceMicroUsd) {
+        apply(artistId, new Delta(block.longValueExact(), amount.negate(), ethReceived.negate(), null, false), priceMicroUsd);
+    }
+
+    public void applyCurveCompleted(String artistId, BigInteger block, BigInteger ethLiquidity) {
+        apply(artistId, new Delta(block.longValueExact(), BigInteger.ZERO, ethLiquidity.negate(), null, true), null);
+    }
+
+    public void applyDailySellLimit(String artistId, BigInteger block, BigInteger newLimitUsd) {
+        apply(artistId, new Delta(block.longValueExact(), BigInteger.ZERO, BigInteger.ZERO, newLimitUsd, false), null);
+    }
+
+    /**
+     * The token's current state in the shape of a chain snapshot, or null while the model is not
+     * seeded yet (a seed is started in the background; the caller should read the chain this time).
+     */
+    public TokenSnapshot snapshot(String artistId) {
+        CurveState state = states.get(artistId);
+        if (state == null) {
+            return null;
+        }
+        synchronized (state) {
+            if (!state.seeded) {
+                startSeed(state);
+                return null;
+            }
+            if (negativeBalance(state)) {
+                return null; // between a CurveCompleted and the trade event of the same transaction
+            }
+            TokenSnapshot snapshot = new TokenSnapshot();
+            snapshot.setContractAddress(state.contractAddress);
+            snapshot.setTotalSupply(state.totalSupply);
+            snapshot.setTokensSold(state.tokensSold);
+            snapshot.setTokensInCurve(state.curveTokens.subtract(state.tokensSold));
+            snapshot.setEthInCurve(state.ethInCurve);
+            snapshot.setPriceMicroUsd(virtualPrice(state, ethUsdPriceService.getEthUsdPrice()));
+            snapshot.setEthForOneToken(ethForOneToken(state));
+            snapshot.setDailySellLimitUsd(state.dailySellLimitUsd);
+            return snapshot;
+        }
+    }
+
+    /**
+     * Seeds tokens that are not seeded yet and checks the others against one batched, block-pinned
+     * read of every tracked token. Tokens whose snapshot had to fall back to "latest" are skipped.
+     */
+    @Scheduled(fixedDelayString = "${financials.curve-state.reconcile-interval-ms:300000}",
+            initialDelayString = "${financials.curve-state.reconcile-initial-delay-ms:30000}")
+    public void reconcile() {
+        if (states.isEmpty()) {
+            return;
+        }
+        Map<String, CurveState> byContract = states.values().stream()
+                .collect(Collectors.toMap(state -> state.contractAddress, state -> state, (a, b) -> a));
+        try {
+            Map<String, TokenSnapshot> snapshots = contractStateReader.readSnapshotsAsync(byContract.keySet()).join();
+            snapshots.forEach((contractAddress, snapshot) -> {
+                CurveState state = byContract.get(contractAddress);
+                if (state != null) {
+                    synchronized (state) {
+                        if (!state.seeded) {
+                            seed(state, snapshot, "startup");
+                        } else if (drifted(state, snapshot)) {
+                            seed(state, snapshot, "reconcile");
+                        }
+                    }
+                }
+            });
+        } catch (Exception e) {
+            logger.warn("Curve state reconciliation failed: {}", e.getMessage());
+        }
+    }
+
+    private void apply(String artistId, Delta delta, BigInteger eventPriceMicroUsd) {
+        CurveState state = states.get(artistId);
+        if (state == null) {
+            return;
+        }
+        synchronized (state) {
+            state.journal.addLast(delta);
+            while (state.journal.size() > journalSize) {
+                state.droppedThroughBlock = Math.max(state.droppedThroughBlock, state.journal.removeFirst().block());
+            }
+            // Events up to the seeding block are already part of the snapshot
+            if (!state.seeded || delta.block() <= state.seededBlock) {
+                return;
+            }
+            applyDelta(state, delta);
+            // A completion is always followed by the trade event of its transaction, which checks for both
+            if (delta.completes()) {
+                return;
+            }
+            if (negativeBalance(state)) {
+                unseed(state, "negative balance");
+            } else if (eventPriceMicroUsd != null && !priceMatches(state, eventPriceMicroUsd)) {
+                unseed(state, "event price " + eventPriceMicroUsd + " not reproduced");
+            }
+        }
+    }
+
+    private void applyDelta(CurveState state, Delta delta) {
+        state.tokensSold = state.tokensSold.add(delta.sold());
+        state.ethInCurve = state.ethInCurve.add(delta.eth());
+        if (delta.dailySellLimitUsd() != null) {
+            state.dailySellLimitUsd = delta.dailySellLimitUsd();
+        }
+        if (delta.completes()) {
+            state.curveComplete = true;
+        }
+    }
+
+    private static boolean negativeBalance(CurveState state) {
+        return state.tokensSold.signum() < 0 || state.ethInCurve.signum() < 0;
+    }
+
+    // Event prices use the feed at the event's block, ours may be a little older
+    private boolean priceMatches(CurveState state, BigInteger eventPriceMicroUsd) {
+        BigInteger modelPrice = virtualPrice(state, ethUsdPriceService.getEthUsdPrice());
+        BigInteger difference = modelPrice.subtract(eventPriceMicroUsd).abs();
+        return difference.multiply(BPS).compareTo(eventPriceMicroUsd.multiply(BigInteger.valueOf(driftToleranceBps))) <= 0;
+    }
+
+    private void unseed(CurveState state, String reason) {
+        logger.warn("Curve state for {} drifted ({}), reseeding from chain", state.artistId, reason);
+        meterRegistry.counter("financials.curve_state.drift", "reason", reason.startsWith("event price") ? "price" : "balance").increment();
+        state.seeded = false;
+        startSeed(state);
+    }
+
+    // Caller holds the state's lock
+    private void startSeed(CurveState state) {
+        if (state.seeding) {
+            return;
+        }
+        state.seeding = true;
+        contractStateReader.readSnapshotAsync(state.contractAddress).whenComplete((snapshot, e) -> {
+            synchronized (state) {
+                state.seeding = false;
+                if (e != null) {
+                    logger.warn("Could not seed curve state for {}: {}", state.artistId, e.getMessage());
+                } else {
+                    seed(state, snapshot, "seed");
+                }
+            }
+        });
+    }
+
+    // Caller holds the state's lock
+    private void seed(CurveState state, TokenSnapshot snapshot, String trigger) {
+        if (snapshot.getBlockNumber() == null) {
+            logger.debug("Snapshot for {} is not pinned to a block, not seeding from it", state.artistId);
+            return;
+        }
+        long block = snapshot.getBlockNumber().longValueExact();
+        if (block < state.droppedThroughBlock || (state.seeded && block < state.seededBlock)) {
+            logger.debug("Snapshot for {} at block {} is older than the journal, not seeding from it", state.artistId, block);
+            return;
+        }
+        state.totalSupply = snapshot.getTotalSupply();
+        state.curveTokens = snapshot.getTokensInCurve().add(snapshot.getTokensSold());
+        state.tokensSold = snapshot.getTokensSold();
+        state.ethInCurve = snapshot.getEthInCurve();
+        state.dailySellLimitUsd = snapshot.getDailySellLimitUsd();
+        // getEthForTokens(1e18) only returns 0 with at least one token sold once the curve is complete
+        state.curveComplete = snapshot.getEthForOneToken().signum() == 0 && snapshot.getTokensSold().compareTo(ONE_TOKEN) >= 0;
+        for (Delta delta : state.journal) {
+            if (delta.block() > block) {
+                applyDelta(state, delta);
+            }
+        }
+        state.seededBlock = block;
+        state.seeded = true;
+        meterRegistry.counter("financials.curve_state.seeds", "trigger", trigger).increment();
+        logger.info("Curve state for {} seeded at block {} ({})", state.artistId, block, trigger);
+    }
+
+    // Compares the chain at the snapshot's block with the model minus the events journaled after it
+    private boolean drifted(CurveState state, TokenSnapshot snapshot) {
+        if (snapshot.getBlockNumber() == null) {
+            return false;
+        }
+        long block = snapshot.getBlockNumber().longValueExact();
+        if (block < state.droppedThroughBlock || block < state.seededBlock) {
+            return false;
+        }
+        BigInteger tokensSold = state.tokensSold;
+        BigInteger ethInCurve = state.ethInCurve;
+        boolean limitChangedSince = false;
+        for (Delta delta : state.journal) {
+            if (delta.block() > block) {
+                tokensSold = tokensSold.subtract(delta.sold());
+                ethInCurve = ethInCurve.subtract(delta.eth());
+                limitChangedSince |= delta.dailySellLimitUsd() != null;
+            }
+        }
+        boolean drifted = !tokensSold.equals(snapshot.getTokensSold())
+                || !ethInCurve.equals(snapshot.getEthInCurve())
+                || !state.totalSupply.equals(snapshot.getTotalSupply())
+                || (!limitChangedSince && !state.dailySellLimitUsd.equals(snapshot.getDailySellLimitUsd()));
+        if (drifted) {
+            logger.warn("Curve state for {} drifted at block {}: model tokensSold={}, ethInCurve={}; chain tokensSold={}, ethInCurve={}",
+                    state.artistId, block, tokensSold, ethInCurve, snapshot.getTokensSold(), snapshot.getEthInCurve());
+            meterRegistry.counter("financials.curve_state.drift", "reason", "reconcile").increment();
+        }
+        return drifted;
+    }
+
+    // _getVirtualPriceMicroUSD()
+    private BigInteger virtualPrice(CurveState state, BigInteger ethUsdPrice) {
+        return SLOPE_NUMERATOR.multiply(state.ethInCurve.add(VIRTUAL_ETH)).multiply(ethUsdPrice)
+                .divide(state.tokensSold.add(VIRTUAL_SOLD).multiply(PRICE_DIVISOR));
+    }
+
+    // getEthForTokens(1e18)
+    private BigInteger ethForOneToken(CurveState state) {
+        if (state.curveComplete || ONE_TOKEN.compareTo(state.tokensSold) > 0) {
+            return BigInteger.ZERO;
+        }
+        if (state.tokensSold.equals(ONE_TOKEN)) {
+            return state.ethInCurve;
+        }
+        return ONE_TOKEN.multiply(state.ethInCurve).divide(state.tokensSold);
+    }
+}
@@ -0,0 +1,161 @@
+package com.musicinvestment.musicapp.service;
+
+import com.musicinvestment.musicapp.repository.ArtistRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.math.BigInteger;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * One in-memory ETH/USD price for the whole backend. Every artist token reads the same Chainlink
+ * feed, so the price is fetched once per new block (at most every refresh interval) and served
+ * to all callers from an atomic reference. The $3500 fallback is only used once the cached
+ * value is older than the staleness bound and a refresh has failed. Callers that find the value
+ * stale share one refresh, and after a failed one they stop calling the node until the failure
+ * backoff has passed; the scheduled task keeps retrying in the meantime.
+ */
+@Service
+public class EthUsdPriceService {
+
+    private static final Logger logger = LoggerFactory.getLogger(EthUsdPriceService.class);
+    public static final BigInteger FALLBACK_ETH_USD_PRICE = BigInteger.valueOf(3500).multiply(BigInteger.TEN.pow(8)); // $3500 * 10^8
+
+    private record PriceSample(BigInteger price, long fetchedAtMillis, BigInteger block) {}
+
+    private final ContractStateReader contractStateReader;
+    private final ContractEventIngestionService eventIngestionService;
+    private final ArtistRepository artistRepository;
+    private final long maxStalenessMs;
+    private final long failureBackoffMs;
+
+    private final AtomicReference<PriceSample> latest = new AtomicReference<>();
+    private final ReentrantLock refreshLock = new ReentrantLock();
+    private volatile long lastAttemptMillis;
+    private volatile long lastFailureMillis;
+
+    public EthUsdPriceService(
+            ContractStateReader contractStateReader,
+            ContractEventIngestionService eventIngestionService,
+            ArtistRepository artistRepository,
+            @Value("${blockchain.eth-usd.max-staleness-ms:120000}") long maxStalenessMs,
+            @Value("${blockchain.eth-usd.failure-backoff-ms:10000}") long failureBackoffMs) {
+        this.contractStateReader = contractStateReader;
+        this.eventIngestionService = eventIngestionService;
+        this.artistRepository = artistRepository;
+        this.maxStalenessMs = maxStalenessMs;
+        this.failureBackoffMs = failureBackoffMs;
+    }
+
+    // ETH/USD with 8 decimals, as returned by the feed
+    public BigInteger getEthUsdPrice() {
+        PriceSample sample = latest.get();
+        if (isFresh(sample)) {
+            return sample.price();
+        }
+        sample = refreshIfStale();
+        if (isFresh(sample)) {
+            return sample.price();
+        }
+        logger.warn("ETH/USD price is stale or missing (last sample: {}), using fallback $3500", sample);
+        return FALLBACK_ETH_USD_PRICE;
+    }
+
+    // Skips the RPC call while the chain has not moved since the last sample
+    @Scheduled(fixedDelayString = "${blockchain.eth-usd.refresh-interval-ms:15000}")
+    public void scheduledRefresh() {
+        PriceSample sample = latest.get();
+        BigInteger block = eventIngestionService.getLastProcessedBlock();
+        if (sample != null && block != null && block.equals(sample.block()) && isFresh(sample)) {
+            return;
+        }
+        refreshLock.lock();
+        try {
+            refresh();
+        } finally {
+            refreshLock.unlock();
+        }
+    }
+
+    private PriceSample refreshIfStale() {
+        long requestedAt = System.currentTimeMillis();
+        if (inFailureBackoff(requestedAt)) {
+            return latest.get();
+        }
+        refreshLock.lock();
+        try {
+            PriceSample sample = latest.get();
+            // A refresh that finished while we waited for the lock answers for us too, even a failed one
+            if (isFresh(sample) || lastAttemptMillis >= requestedAt || inFailureBackoff(System.currentTimeMillis())) {
+                return sample;
+            }
+            return refresh();
+        } finally {
+            refreshLock.unlock();
+        }
+    }
+
+    // Caller holds refreshLock
+    private PriceSample refresh() {
+        try {
+            PriceSample sample = fetch();
+            if (sample == null) {
+                lastFailureMillis = System.currentTimeMillis();
+                return latest.get();
+            }
+            return sample;
+        } finally {
+            lastAttemptMillis = System.currentTimeMillis();
+        }
+    }
+
+    // The new sample, or null when no price could be read
+    private PriceSample fetch() {
+        BigInteger block = eventIngestionService.getLastProcessedBlock();
+        String contractAddress = anyTokenAddress();
+        if (contractAddress == null) {
+            logger.debug("No artist token deployed yet, cannot read ETH/USD price");
+            return null;
+        }
+        try {
+            BigInteger price = contractStateReader.readEthUsdPrice(contractAddress);
+            if (price == null || price.signum() <= 0) {
+                logger.warn("Invalid ETH/USD price {} from contract {}, keeping previous value", price, contractAddress);
+                return null;
+            }
+            PriceSample sample = new PriceSample(price, System.currentTimeMillis(), block);
+            PriceSample previous = latest.getAndSet(sample);
+            if (previous == null || !previous.price().equals(price)) {
+                logger.info("ETH/USD price updated to {} at block {}", price, block);
+            }
+            return sample;
+        } catch (Exception e) {
+            logger.warn("Failed to refresh ETH/USD price via contract {}: {}", contractAddress, e.getMessage());
+            return null;
+        }
+    }
+
+    private String anyTokenAddress() {
+        Set<String> subscribed = eventIngestionService.getSubscribedContracts();
+        if (!subscribed.isEmpty()) {
+            return subscribed.iterator().next();
+        }
+        List<String> stored = artistRepository.findAllContractAddresses();
+        return stored.stream().filter(Objects::nonNull).findFirst().orElse(null);
+    }
+
+    private boolean inFailureBackoff(long now) {
+        return lastFailureMillis > 0 && now - lastFailureMillis < failureBackoffMs;
+    }
+
+    private boolean isFresh(PriceSample sample) {
+        return sample != null && System.currentTimeMillis() - sample.fetchedAtMillis() <= maxStalenessMs;
+    }
+}
@@ -0,0 +1,128 @@
+package com.musicinvestment.musicapp.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.musicinvestment.musicapp.model.Financials;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.stereotype.Service;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+/**
+ * Pushes financials to /topic/financials/{artistId} at most once per window per artist. Events only
+ * mark the artist dirty; the first mark schedules one recompute at the end of the window and later
+ * marks inside it are absorbed, so a burst of trades costs one computation and one push. Snapshots
+ * whose market fields equal the last one pushed are skipped (nextReset is recomputed from the clock
+ * every time, so it does not count), and with financials.publish.deltas=true the changed fields
+ * alone also go to /topic/financials/{artistId}/delta.
+ */
+@Service
+public class FinancialsPublisher {
+
+    private static final Logger logger = LoggerFactory.getLogger(FinancialsPublisher.class);
+    // Derived from the current time on every computation, not from market state
+    private static final String NEXT_RESET = "nextReset";
+
+    private final SimpMessagingTemplate messagingTemplate;
+    private final ObjectMapper objectMapper;
+    private final long windowMs;
+    private final boolean publishDeltas;
+
+    private final Set<String> dirty = ConcurrentHashMap.newKeySet();
+    private final Map<String, Financials> lastPublished = new ConcurrentHashMap<>();
+    private final ScheduledExecutorService scheduler;
+    private volatile Function<String, Financials> loader;
+
+    public FinancialsPublisher(
+            SimpMessagingTemplate messagingTemplate,
+            ObjectMapper objectMapper,
+            @Value("${financials.publish.window-ms:500}") long windowMs,
+            @Value("${financials.publish.deltas:false}") boolean publishDeltas,
+            @Value("${financials.publish.threads:2}") int threads) {
+        this.messagingTemplate = messagingTemplate;
+        this.objectMapper = objectMapper;
+        this.windowMs = windowMs;
+        this.publishDeltas = publishDeltas;
+        AtomicInteger threadCount = new AtomicInteger();
+        this.scheduler = Executors.newScheduledThreadPool(Math.max(1, threads), r -> {
+            Thread t = new Thread(r, "financials-publisher-" + threadCount.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        });
+        logger.info("Financials publisher configured: windowMs={}, deltas={}", windowMs, publishDeltas);
+    }
+
+    // How a dirty artist's financials are computed; set once by BlockchainSyncService at startup
+    public void setLoader(Function<String, Financials> loader) {
+        this.loader = loader;
+    }
+
+    // Callers invalidate the artist's cached financials first, so the loader sees the new state
+    public void markDirty(String artistId) {
+        if (dirty.add(artistId)) {
+            scheduler.schedule(() -> publish(artistId), windowMs, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        scheduler.shutdownNow();
+    }
+
+    private void publish(String artistId) {
+        // Cleared before computing: an event arriving meanwhile schedules the next window
+        dirty.remove(artistId);
+        Function<String, Financials> load = loader;
+        if (load == null) {
+            return;
+        }
+        try {
+            Financials financials = load.apply(artistId);
+            Financials previous = lastPublished.put(artistId, financials);
+            Map<String, Object> changed = changedFields(previous, financials);
+            if (changed.isEmpty()) {
+                logger.debug("Financials for {} unchanged, nothing pushed", artistId);
+                return;
+            }
+            messagingTemplate.convertAndSend("/topic/financials/" + artistId, financials);
+            if (publishDeltas) {
+                messagingTemplate.convertAndSend("/topic/financials/" + artistId + "/delta", changed);
+            }
+        } catch (Exception e) {
+            logger.error("Failed to publish financials for {}: {}", artistId, e.getMessage(), e);
+        }
+    }
+
+    // Market fields that differ from the previous snapshot; all of them for the first one.
+    // nextReset only rides along when something else changed.
+    @SuppressWarnings("unchecked")
+    private Map<String, Object> changedFields(Financials previous, Financials current) {
+        Map<String, Object> now = objectMapper.convertValue(current, Map.class);
+        if (previous == null) {
+            return now;
+        }
+        Map<String, Object> before = objectMapper.convertValue(previous, Map.class);
+        Map<String, Object> changed = new LinkedHashMap<>();
+        now.forEach((field, value) -> {
+            if (!NEXT_RESET.equals(field) && !Objects.equals(value, before.get(field))) {
+                changed.put(field, value);
+            }
+        });
+        if (!changed.isEmpty() && !Objects.equals(now.get(NEXT_RESET), before.get(NEXT_RESET))) {
+            changed.put(NEXT_RESET, now.get(NEXT_RESET));
+        }
+        return changed;
+    }
+}
@@ -0,0 +1,390 @@
+package com.musicinvestment.musicapp.service;
+
+import com.musicinvestment.musicapp.contract.ArtistSharesToken;
+import com.musicinvestment.musicapp.dto.BackfillProgress;
+import com.musicinvestment.musicapp.exception.PartialInsertException;
+import com.musicinvestment.musicapp.model.Trade;
+import com.musicinvestment.musicapp.repository.TradeRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.web3j.abi.EventEncoder;
+import org.web3j.protocol.Web3j;
+import org.web3j.protocol.core.DefaultBlockParameter;
+import org.web3j.protocol.core.methods.request.EthFilter;
+import org.web3j.protocol.core.methods.response.EthLog;
+import org.web3j.protocol.core.methods.response.Log;
+
+import jakarta.annotation.PreDestroy;
+import java.math.BigInteger;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+
+/**
+ * Catches artist contracts up from their block cursor to a target block. Contracts run in
+ * parallel on a bounded worker pool; each one walks its block range window by window through
+ * fetch -> decode -> build -> dedup -> persist -> checkpoint. Every eth_getLogs/eth_call made
+ * here goes through a shared rate limiter so a large backfill cannot starve live polling.
+ */
+@Service
+public class HistoricalBackfillService {
+
+    private static final Logger logger = LoggerFactory.getLogger(HistoricalBackfillService.class);
+    private static final long BLOCKS_PER_DAY = 5760; // Approx. 15s block time, 24h = 86400s / 15
+    private static final long BACKFILL_DAYS = 30; // Look back 30 days when a contract has no cursor yet
+    private static final long MIN_WINDOW_BLOCKS = 100;
+    private static final String SHARES_BOUGHT_TOPIC = EventEncoder.encode(ArtistSharesToken.SHARESBOUGHT_EVENT);
+    private static final String SHARES_SOLD_TOPIC = EventEncoder.encode(ArtistSharesToken.SHARESSOLD_EVENT);
+
+    private final Web3j web3j;
+    private final TradeRepository tradeRepository;
+    private final TradeDedupService tradeDedupService;
+    private final BlockCursorService blockCursorService;
+    private final ContractEventIngestionService eventIngestionService;
+    private final EthUsdPriceService ethUsdPriceService;
+    private final TradeEventMapper tradeEventMapper;
+    private final CandleDataService candleDataService;
+    private final TradeVolumeService tradeVolumeService;
+    private final RpcRateLimiter rateLimiter;
+    private final ExecutorService workers;
+    private final long windowBlocks;
+    private final int maxAttempts;
+    private final long retryDelayMs;
+
+    private final Map<String, BackfillProgress> progressByContract = new ConcurrentHashMap<>();
+    private final Map<String, CompletableFuture<Integer>> inFlight = new ConcurrentHashMap<>();
+
+    public HistoricalBackfillService(
+            Web3j web3j,
+            TradeRepository tradeRepository,
+            TradeDedupService tradeDedupService,
+            BlockCursorService blockCursorService,
+            ContractEventIngestionService eventIngestionService,
+            EthUsdPriceService ethUsdPriceService,
+            TradeEventMapper tradeEventMapper,
+            CandleDataService candleDataService,
+            TradeVolumeService tradeVolumeService,
+            @Value("${blockchain.backfill.concurrency:4}") int concurrency,
+            @Value("${blockchain.backfill.rpc-requests-per-second:10}") double rpcRequestsPerSecond,
+            @Value("${blockchain.backfill.window-blocks:2000}") long windowBlocks,
+            @Value("${blockchain.backfill.max-attempts:5}") int maxAttempts,
+            @Value("${blockchain.backfill.retry-delay-ms:30000}") long retryDelayMs) {
+        this.web3j = web3j;
+        this.tradeRepository = tradeRepository;
+        this.tradeDedupService = tradeDedupService;
+        this.blockCursorService = blockCursorService;
+        this.eventIngestionService = eventIngestionService;
+        this.ethUsdPriceService = ethUsdPriceService;
+        this.tradeEventMapper = tradeEventMapper;
+        this.candleDataService = candleDataService;
+        this.tradeVolumeService = tradeVolumeService;
+        this.rateLimiter = new RpcRateLimiter(rpcRequestsPerSecond);
+        this.windowBlocks = windowBlocks;
+        this.maxAttempts = Math.max(1, maxAttempts);
+        this.retryDelayMs = retryDelayMs;
+        AtomicInteger threadCount = new AtomicInteger();
+        this.workers = Executors.newFixedThreadPool(Math.max(1, concurrency), r -> {
+            Thread t = new Thread(r, "backfill-" + threadCount.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        });
+        logger.info("Historical backfill configured: concurrency={}, rpcRequestsPerSecond={}, windowBlocks={}, maxAttempts={}",
+                concurrency, rpcRequestsPerSecond, windowBlocks, this.maxAttempts);
+    }
+
+    // targetBlock == null means "the chain head when the job starts"; the future yields the number of trades saved.
+    // A failed job resumes from its cursor after a growing delay, and only fails for good after maxAttempts.
+    public CompletableFuture<Integer> submit(String contractAddress, String artistId, BigInteger targetBlock) {
+        String normalized = contractAddress.toLowerCase();
+        CompletableFuture<Integer> job = new CompletableFuture<>();
+        CompletableFuture<Integer> running = inFlight.putIfAbsent(normalized, job);
+        if (running != null) {
+            return running;
+        }
+        progressByContract.put(normalized, new BackfillProgress(normalized, artistId));
+        job.whenComplete((trades, error) -> inFlight.remove(normalized, job));
+        attempt(normalized, artistId, targetBlock, 1, job);
+        return job;
+    }
+
+    private void attempt(String contractAddress, String artistId, BigInteger targetBlock, int attempt, CompletableFuture<Integer> job) {
+        try {
+            synchronized (progressByContract.get(contractAddress)) {
+                progressByContract.get(contractAddress).setAttempts(attempt);
+            }
+            CompletableFuture.supplyAsync(() -> catchUp(contractAddress, artistId, targetBlock), workers)
+                    .whenComplete((trades, error) -> {
+                        if (error == null) {
+                            job.complete(trades);
+                        } else if (attempt >= maxAttempts) {
+                            logger.error("Backfill for {} failed after {} attempts, giving up until the next restart",
+                                    contractAddress, attempt);
+                            job.completeExceptionally(error);
+                        } else {
+                            long delayMs = retryDelayMs << Math.min(attempt - 1, 6);
+                            logger.warn("Backfill for {} failed (attempt {}/{}), retrying in {} ms",
+                                    contractAddress, attempt, maxAttempts, delayMs);
+                            CompletableFuture.delayedExecutor(delayMs, TimeUnit.MILLISECONDS)
+                                    .execute(() -> attempt(contractAddress, artistId, targetBlock, attempt + 1, job));
+                        }
+                    });
+        } catch (RejectedExecutionException e) {
+            job.completeExceptionally(e); // shutting down
+        }
+    }
+
+    public List<BackfillProgress> getProgress() {
+        return progressByContract.values().stream()
+                .map(progress -> {
+                    synchronized (progress) {
+                        return progress.copy();
+                    }
+                })
+                .sorted(Comparator.comparing(BackfillProgress::getContractAddress))
+                .collect(Collectors.toList());
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        workers.shutdownNow();
+    }
+
+    private int catchUp(String contractAddress, String artistId, BigInteger targetBlock) {
+        BackfillProgress progress = progressByContract.get(contractAddress);
+        LocalDateTime[] tradeRange = new LocalDateTime[2]; // earliest and latest trade this job stored
+        try {
+            long target = (targetBlock != null ? targetBlock : currentHead()).longValueExact();
+            BigInteger ethUsdPrice = ethUsdPriceService.getEthUsdPrice();
+
+            long cursor = blockCursorService.getCursor(contractAddress)
+                    .orElseGet(() -> Math.max(0L, target - BLOCKS_PER_DAY * BACKFILL_DAYS) - 1);
+            synchronized (progress) {
+                progress.setState(BackfillProgress.State.RUNNING);
+                progress.setStartedAt(now());
+                progress.setStartBlock(cursor + 1);
+                progress.setTargetBlock(target);
+                progress.setCurrentBlock(cursor);
+            }
+            logger.info("Backfilling {} (artistId {}) from block {} to {}", contractAddress, artistId, cursor + 1, target);
+
+            int totalTrades = 0;
+            long window = windowBlocks;
+            while (cursor < target) {
+                long fromBlock = cursor + 1;
+                long toBlock = Math.min(target, fromBlock + window - 1);
+
+                List<Log> logs;
+                try {
+                    logs = fetchLogs(contractAddress, fromBlock, toBlock);
+                } catch (Exception e) {
+                    // Providers cap eth_getLogs by range or result size; shrink and retry
+                    if (window <= MIN_WINDOW_BLOCKS) {
+                        throw e;
+                    }
+                    window = Math.max(MIN_WINDOW_BLOCKS, window / 2);
+                    logger.warn("eth_getLogs failed for {} blocks {}-{}, retrying with window {}: {}",
+                            contractAddress, fromBlock, toBlock, window, e.getMessage());
+                    continue;
+                }
+
+                List<Trade> trades = persist(buildTrades(decode(logs), artistId, contractAddress, ethUsdPrice));
+                blockCursorService.advance(contractAddress, toBlock);
+                cursor = toBlock;
+                totalTrades += trades.size();
+                widen(tradeRange, trades);
+
+                synchronized (progress) {
+                    progress.setCurrentBlock(cursor);
+                    progress.setWindowsProcessed(progress.getWindowsProcessed() + 1);
+                    progress.setTradesSaved(totalTrades);
+                    long span = Math.max(1, target - progress.getStartBlock() + 1);
+                    progress.setPercentComplete(Math.min(100.0, 100.0 * (cursor - progress.getStartBlock() + 1) / span));
+                }
+            }
+
+            // The live poller has covered everything after target for this contract since it joined the
+            // filter, so the cursor can jump to the poller's committed block and stay contiguous from
+            // here on. The poller may commit further while we write, so repeat until we have caught up.
+            long joined = cursor;
+            BigInteger live;
+            while ((live = eventIngestionService.getCommittedBlock()) != null && live.longValueExact() > joined) {
+                joined = live.longValueExact();
+                blockCursorService.advance(contractAddress, joined);
+            }
+
+            rebuildCandles(artistId, tradeRange);
+
+            synchronized (progress) {
+                progress.setState(BackfillProgress.State.COMPLETED);
+                progress.setPercentComplete(100.0);
+                progress.setFinishedAt(now());
+            }
+            logger.info("Backfill for {} reached block {}: {} trades", artistId, cursor, totalTrades);
+            return totalTrades;
+        } catch (Exception e) {
+            // The trades saved before the failure stay saved, so their candles must still be built
+            if (e instanceof PartialInsertException partial) {
+                widen(tradeRange, partial.getInserted());
+            }
+            rebuildCandles(artistId, tradeRange);
+            synchronized (progress) {
+                progress.setState(BackfillProgress.State.FAILED);
+                progress.setError(e.getMessage());
+                progress.setFinishedAt(now());
+            }
+            logger.error("Failed to process backfill for contract {}: {}", contractAddress, e.getMessage(), e);
+            throw new CompletionException(e);
+        }
+    }
+
+    // One rebuild over everything a job wrote instead of up to 7 candle lookups and saves per trade
+    private void rebuildCandles(String artistId, LocalDateTime[] tradeRange) {
+        if (tradeRange[0] == null) {
+            return;
+        }
+        try {
+            candleDataService.rebuildCandles(artistId, tradeRange[0], tradeRange[1].plusSeconds(1));
+        } catch (Exception e) {
+            logger.error("Failed to rebuild candles for {} between {} and {}: {}",
+                    artistId, tradeRange[0], tradeRange[1], e.getMessage(), e);
+        }
+    }
+
+    private static void widen(LocalDateTime[] tradeRange, List<Trade> trades) {
+        for (Trade trade : trades) {
+            if (tradeRange[0] == null || trade.getTimestamp().isBefore(tradeRange[0])) {
+                tradeRange[0] = trade.getTimestamp();
+            }
+            if (tradeRange[1] == null || trade.getTimestamp().isAfter(tradeRange[1])) {
+                tradeRange[1] = trade.getTimestamp();
+            }
+        }
+    }
+
+    private BigInteger currentHead() throws Exception {
+        rateLimiter.acquire();
+        return web3j.ethBlockNumber().send().getBlockNumber();
+    }
+
+    private List<Log> fetchLogs(String contractAddress, long fromBlock, long toBlock) throws Exception {
+        EthFilter filter = new EthFilter(
+                DefaultBlockParameter.valueOf(BigInteger.valueOf(fromBlock)),
+                DefaultBlockParameter.valueOf(BigInteger.valueOf(toBlock)),
+                contractAddress);
+        filter.addOptionalTopics(SHARES_BOUGHT_TOPIC, SHARES_SOLD_TOPIC);
+
+        rateLimiter.acquire();
+        EthLog ethLog = web3j.ethGetLogs(filter).send();
+        if (ethLog.hasError()) {
+            throw new IllegalStateException("eth_getLogs failed for blocks " + fromBlock + "-" + toBlock
+                    + ": " + ethLog.getError().getMessage());
+        }
+
+        List<Log> logs = new ArrayList<>();
+        for (EthLog.LogResult result : ethLog.getLogs()) {
+            if (result.get() instanceof Log log && !log.isRemoved() && !log.getTopics().isEmpty()) {
+                logs.add(log);
+            }
+        }
+        return logs;
+    }
+
+    private List<Object> decode(List<Log> logs) {
+        List<Object> events = new ArrayList<>(logs.size());
+        for (Log log : logs) {
+            String topic = log.getTopics().get(0);
+            if (SHARES_BOUGHT_TOPIC.equals(topic)) {
+                events.add(ArtistSharesToken.getSharesBoughtEventFromLog(log));
+            } else if (SHARES_SOLD_TOPIC.equals(topic)) {
+                events.add(ArtistSharesToken.getSharesSoldEventFromLog(log));
+            }
+        }
+        return events;
+    }
+
+    private List<Trade> buildTrades(List<Object> events, String artistId, String contractAddress, BigInteger ethUsdPrice) {
+        List<Trade> trades = new ArrayList<>(events.size());
+        for (Object event : events) {
+            if (event instanceof ArtistSharesToken.SharesBoughtEventResponse bought) {
+                trades.add(tradeEventMapper.createTradeFromBuyEvent(bought, artistId, contractAddress, ethUsdPrice));
+            } else if (event instanceof ArtistSharesToken.SharesSoldEventResponse sold) {
+                trades.add(tradeEventMapper.createTradeFromSellEvent(sold, artistId, contractAddress, ethUsdPrice));
+            }
+        }
+        return trades;
+    }
+
+    // Hashes seen recently are dropped in memory; the rest cost one lookup per window instead of one per event
+    private List<Trade> dropKnownTrades(List<Trade> unseen) {
+        if (unseen.isEmpty()) {
+            return unseen;
+        }
+        Set<String> known = new HashSet<>(tradeRepository.findTxHashesIn(
+                unseen.stream().map(Trade::getTxHash).collect(Collectors.toList())));
+        if (known.isEmpty()) {
+            return unseen;
+        }
+        List<Trade> fresh = new ArrayList<>(unseen.size());
+        for (Trade trade : unseen) {
+            if (known.contains(trade.getTxHash())) {
+                logger.debug("Skipping duplicate backfill {} trade for txHash: {}", trade.getEventType(), trade.getTxHash());
+            } else {
+                fresh.add(trade);
+            }
+        }
+        return fresh;
+    }
+
+    // Mark, lookup and insert succeed or fail together: whatever is not confirmed stored is forgotten
+    // again, so the retried window does not drop it as already seen
+    private List<Trade> persist(List<Trade> trades) {
+        List<Trade> unseen = new ArrayList<>(trades.size());
+        for (Trade trade : trades) {
+            if (tradeDedupService.markSeen(trade.getTxHash())) {
+                unseen.add(trade);
+            }
+        }
+        List<Trade> inserted;
+        try {
+            inserted = tradeDedupService.insertAllIfAbsent(dropKnownTrades(unseen));
+        } catch (RuntimeException e) {
+            List<Trade> stored = e instanceof PartialInsertException partial ? partial.getInserted() : List.of();
+            Set<String> storedHashes = stored.stream().map(Trade::getTxHash).collect(Collectors.toSet());
+            for (Trade trade : unseen) {
+                if (!storedHashes.contains(trade.getTxHash())) {
+                    tradeDedupService.forget(trade.getTxHash());
+                }
+            }
+            // The retried window skips these as known, so they are counted here
+            recordInserted(stored);
+            throw e;
+        }
+        recordInserted(inserted);
+        return inserted;
+    }
+
+    private void recordInserted(List<Trade> inserted) {
+        tradeVolumeService.recordAll(inserted);
+        inserted.forEach(candleDataService::updateOpenCandlesForTrade);
+    }
+
+    private LocalDateTime now() {
+        return LocalDateTime.now(ZoneId.of("UTC"));
+    }
+}
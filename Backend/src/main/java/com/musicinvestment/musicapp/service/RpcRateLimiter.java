@@ -0,0 +1,49 @@
+package com.musicinvestment.musicapp.service;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+// Minimal token bucket: callers block in acquire() until a permit is available.
+// Burst size equals one second's worth of permits.
+public class RpcRateLimiter {
+
+    private final double permitsPerSecond;
+    private final double maxPermits;
+    private double storedPermits;
+    private long lastRefillNanos;
+
+    public RpcRateLimiter(double permitsPerSecond) {
+        if (permitsPerSecond <= 0) {
+            throw new IllegalArgumentException("permitsPerSecond must be positive: " + permitsPerSecond);
+        }
+        this.permitsPerSecond = permitsPerSecond;
+        this.maxPermits = Math.max(1.0, permitsPerSecond);
+        this.storedPermits = maxPermits;
+        this.lastRefillNanos = System.nanoTime();
+    }
+
+    public void acquire() throws InterruptedException {
+        while (true) {
+            long waitNanos;
+            synchronized (this) {
+                refill();
+                if (storedPermits >= 1.0) {
+                    storedPermits -= 1.0;
+                    return;
+                }
+                waitNanos = (long) ((1.0 - storedPermits) / permitsPerSecond * TimeUnit.SECONDS.toNanos(1));
+            }
+            LockSupport.parkNanos(waitNanos);
+            if (Thread.interrupted()) {
+                throw new InterruptedException("Interrupted while waiting for RPC permit");
+            }
+        }
+    }
+
+    private void refill() {
+        long now = System.nanoTime();
+        double elapsedSeconds = (now - lastRefillNanos) / (double) TimeUnit.SECONDS.toNanos(1);
+        storedPermits = Math.min(maxPermits, storedPermits + elapsedSeconds * permitsPerSecond);
+        lastRefillNanos = now;
+    }
+}
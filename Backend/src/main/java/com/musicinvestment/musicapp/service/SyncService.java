@@ -5,17 +5,14 @@ import com.musicinvestment.musicapp.dto.ArtistSharesDto;
 import com.musicinvestment.musicapp.model.Artist;
 import com.musicinvestment.musicapp.model.CandleData;
 import com.musicinvestment.musicapp.model.Timeframe;
-import com.musicinvestment.musicapp.repository.TradeRepository;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
-import java.time.ZoneId;
 import java.math.BigDecimal;
 import java.math.BigInteger;
 import java.math.RoundingMode;
-import java.time.LocalDateTime;
 import java.util.List;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -31,7 +28,7 @@ public class SyncService {
     private final CandleDataService candleDataService;
     private final SpotifyService spotifyService;
     private final ContractService contractService;
-    private final TradeRepository tradeRepository;
+    private final TradeVolumeService tradeVolumeService;
 
     @Autowired
     public SyncService(
@@ -40,13 +37,13 @@ public class SyncService {
             CandleDataService candleDataService,
             SpotifyService spotifyService,
             ContractService contractService,
-            TradeRepository tradeRepository) {
+            TradeVolumeService tradeVolumeService) {
         this.artistService = artistService;
         this.blockchainSyncService = blockchainSyncService;
         this.candleDataService = candleDataService;
         this.spotifyService = spotifyService;
         this.contractService = contractService;
-        this.tradeRepository = tradeRepository;
+        this.tradeVolumeService = tradeVolumeService;
     }
 
     @Scheduled(fixedRateString = "${sync.blockchain.interval:300000}")
@@ -102,9 +99,8 @@ public class SyncService {
 
             // Update artist fields with proper types
             artist.setCurrentPrice(currentPrice);
-            // Calculate real 24h USD volume from actual trades
-            LocalDateTime cutoff = LocalDateTime.now(ZoneId.of("UTC")).minusHours(24);
-            BigDecimal volume24hUsd = tradeRepository.sumVolume24hUsd(artistId, cutoff);
+            // Real 24h USD volume from the ingested trades
+            BigDecimal volume24hUsd = tradeVolumeService.artistVolume24hUsd(artistId);
             artist.setVolume(volume24hUsd.setScale(2, RoundingMode.HALF_UP)); // assuming column is 'volume'
             artist.setDailyLiquidity(new BigDecimal(dailySellLimitUsd)
                     .divide(USD_CENT_SCALE, 2, RoundingMode.HALF_UP));
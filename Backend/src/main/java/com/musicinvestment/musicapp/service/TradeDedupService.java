@@ -0,0 +1,139 @@
+package com.musicinvestment.musicapp.service;
+
+import com.musicinvestment.musicapp.exception.PartialInsertException;
+import com.musicinvestment.musicapp.model.Trade;
+import com.musicinvestment.musicapp.repository.TradeRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Drops duplicate trade events without a database round trip. Recently seen tx hashes are kept
+ * in a lock-free window bounded by both age and size; anything older than the window is caught
+ * by the unique constraint on trades.tx_hash, which makes every insert here idempotent.
+ */
+@Service
+public class TradeDedupService {
+
+    private static final Logger logger = LoggerFactory.getLogger(TradeDedupService.class);
+
+    private final TradeRepository tradeRepository;
+    private final int maxEntries;
+    private final long windowMillis;
+
+    // One markSeen, oldest first in insertionOrder; stale once its hash was forgotten or marked again
+    private record Seen(String txHash, long at) {}
+
+    // txHash -> time first seen; insertionOrder holds the same marks oldest first for eviction
+    private final Map<String, Long> seenAt = new ConcurrentHashMap<>();
+    private final Queue<Seen> insertionOrder = new ConcurrentLinkedQueue<>();
+
+    public TradeDedupService(
+            TradeRepository tradeRepository,
+            @Value("${blockchain.dedup.max-entries:100000}") int maxEntries,
+            @Value("${blockchain.dedup.window-minutes:120}") long windowMinutes) {
+        this.tradeRepository = tradeRepository;
+        this.maxEntries = maxEntries;
+        this.windowMillis = TimeUnit.MINUTES.toMillis(windowMinutes);
+    }
+
+    // Returns true the first time a hash is seen inside the window, false for a repeat
+    public boolean markSeen(String txHash) {
+        long now = System.currentTimeMillis();
+        if (seenAt.putIfAbsent(txHash, now) != null) {
+            return false;
+        }
+        insertionOrder.add(new Seen(txHash, now));
+        evict(now);
+        return true;
+    }
+
+    // Lets a later redelivery retry a hash whose processing failed; its queue entry goes stale and is skipped
+    public void forget(String txHash) {
+        seenAt.remove(txHash);
+    }
+
+    public int size() {
+        return seenAt.size();
+    }
+
+    // Returns false when a trade with the same tx hash is already stored
+    public boolean insertIfAbsent(Trade trade) {
+        try {
+            tradeRepository.save(trade);
+            return true;
+        } catch (DataIntegrityViolationException e) {
+            if (tradeRepository.findByTxHash(trade.getTxHash()).isPresent()) {
+                logger.debug("Trade for txHash {} already stored", trade.getTxHash());
+                return false;
+            }
+            forget(trade.getTxHash());
+            throw e;
+        } catch (RuntimeException e) {
+            forget(trade.getTxHash());
+            throw e;
+        }
+    }
+
+    // Saves the batch in one transaction; if another writer got there first, falls back to row by row.
+    // Returns the trades that were actually inserted. If the fallback fails partway, the trades it did
+    // store come back in a PartialInsertException and the ones it never reached are forgotten.
+    public List<Trade> insertAllIfAbsent(List<Trade> trades) {
+        if (trades.isEmpty()) {
+            return trades;
+        }
+        try {
+            tradeRepository.saveAll(trades);
+            return trades;
+        } catch (DataIntegrityViolationException e) {
+            logger.info("Batch of {} trades hit an existing tx hash, inserting individually", trades.size());
+        } catch (RuntimeException e) {
+            trades.forEach(trade -> forget(trade.getTxHash()));
+            throw e;
+        }
+        List<Trade> inserted = new ArrayList<>(trades.size());
+        for (int i = 0; i < trades.size(); i++) {
+            Trade trade = trades.get(i);
+            trade.setId(null); // ids assigned inside the rolled-back batch are not real
+            try {
+                if (insertIfAbsent(trade)) {
+                    inserted.add(trade);
+                }
+            } catch (RuntimeException e) {
+                trades.subList(i + 1, trades.size()).forEach(rest -> forget(rest.getTxHash()));
+                throw new PartialInsertException(inserted, e);
+            }
+        }
+        return inserted;
+    }
+
+    private void evict(long now) {
+        while (true) {
+            Seen oldest = insertionOrder.peek();
+            if (oldest == null) {
+                return;
+            }
+            Long firstSeen = seenAt.get(oldest.txHash());
+            boolean stale = firstSeen == null || firstSeen != oldest.at();
+            boolean expired = now - oldest.at() >= windowMillis;
+            if (!stale && !expired && seenAt.size() <= maxEntries) {
+                return;
+            }
+            Seen polled = insertionOrder.poll();
+            if (polled != null) {
+                // Removes only the mark this entry recorded; a forgotten or re-marked hash is left alone
+                seenAt.remove(polled.txHash(), polled.at());
+            }
+        }
+    }
+}
@@ -0,0 +1,122 @@
+package com.musicinvestment.musicapp.service;
+
+import com.musicinvestment.musicapp.contract.ArtistSharesToken;
+import com.musicinvestment.musicapp.model.Trade;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.math.RoundingMode;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+
+// Turns decoded SharesBought/SharesSold events into Trade rows; shared by live ingestion and backfill
+@Component
+public class TradeEventMapper {
+
+    private static final Logger logger = LoggerFactory.getLogger(TradeEventMapper.class);
+
+    public Trade createTradeFromBuyEvent(
+            ArtistSharesToken.SharesBoughtEventResponse event,
+            String artistId,
+            String contractAddress,
+            BigInteger ethUsdPrice) {
+
+        Trade trade = new Trade();
+        trade.setArtistId(artistId);
+        trade.setContractAddress(contractAddress);
+        trade.setEventType(Trade.EventType.BUY);
+        trade.setTxHash(event.log.getTransactionHash());
+
+        // === EXACT ETH SPENT FROM EVENT (thanks to your Solidity fix!) ===
+        BigInteger ethWeiSpent = event.ethSpent != null ? event.ethSpent : BigInteger.ZERO;
+        BigDecimal ethSpent = new BigDecimal(ethWeiSpent)
+                .divide(new BigDecimal("1000000000000000000"), 18, RoundingMode.HALF_UP);
+
+        BigDecimal ethPriceUsd = new BigDecimal(ethUsdPrice != null ? ethUsdPrice : EthUsdPriceService.FALLBACK_ETH_USD_PRICE)
+                .divide(new BigDecimal("100000000"), 8, RoundingMode.HALF_UP);
+
+        BigDecimal amountInUsd = ethSpent.multiply(ethPriceUsd).setScale(2, RoundingMode.HALF_UP);
+
+        BigDecimal amountTokens = new BigDecimal(event.amount)
+                .divide(new BigDecimal("1000000000000000000"), 18, RoundingMode.HALF_UP);
+
+        BigInteger priceMicroCents = event.priceMicroCents;
+        
+        BigDecimal priceUsd = new BigDecimal(priceMicroCents)
+                .divide(new BigDecimal("100000000"), 8, RoundingMode.HALF_UP);
+
+        trade.setAmount(amountTokens.toPlainString());
+        trade.setPriceInUsd(priceUsd);
+        trade.setAmountInUsd(amountInUsd);  // ← Now PERFECT $1507+
+        trade.setPrice(priceMicroCents.toString());
+        trade.setEthValue(ethSpent.toPlainString());
+
+        trade.setTimestamp(LocalDateTime.ofInstant(
+                Instant.ofEpochSecond(event.timestamp.longValue()), ZoneId.of("UTC")));
+        trade.setBuyerOrSeller(event.buyer);
+
+        logger.info("BUY PERFECT: {} → {} tokens @ final ${} | SPENT {} ETH = ${} | tx={}",
+                artistId,
+                amountTokens.stripTrailingZeros().toPlainString(),
+                priceUsd.stripTrailingZeros().toPlainString(),
+                ethSpent.stripTrailingZeros().toPlainString(),
+                amountInUsd.stripTrailingZeros().toPlainString(),
+                event.log.getTransactionHash().substring(0, 10));
+
+        return trade;
+    }
+
+    public Trade createTradeFromSellEvent(
+            ArtistSharesToken.SharesSoldEventResponse event,
+            String artistId,
+            String contractAddress,
+            BigInteger ethUsdPrice) {
+
+        Trade trade = new Trade();
+        trade.setArtistId(artistId);
+        trade.setContractAddress(contractAddress);
+        trade.setEventType(Trade.EventType.SELL);
+        trade.setTxHash(event.log.getTransactionHash());
+
+        // === EXACT ETH RECEIVED FROM EVENT (after your Solidity fix) ===
+        BigInteger ethWeiReceived = event.ethReceived != null ? event.ethReceived : BigInteger.ZERO;
+        BigDecimal ethReceived = new BigDecimal(ethWeiReceived)
+                .divide(new BigDecimal("1000000000000000000"), 18, RoundingMode.HALF_UP);
+
+        BigDecimal ethPriceUsd = new BigDecimal(ethUsdPrice != null ? ethUsdPrice : EthUsdPriceService.FALLBACK_ETH_USD_PRICE)
+                .divide(new BigDecimal("100000000"), 8, RoundingMode.HALF_UP);
+
+        BigDecimal amountInUsd = ethReceived.multiply(ethPriceUsd).setScale(2, RoundingMode.HALF_UP);
+
+        BigDecimal amountTokens = new BigDecimal(event.amount)
+                .divide(new BigDecimal("1000000000000000000"), 18, RoundingMode.HALF_UP);
+
+        BigInteger priceMicroCents = event.priceMicroCents;
+
+        BigDecimal priceUsd = new BigDecimal(priceMicroCents)
+                .divide(new BigDecimal("100000000"), 8, RoundingMode.HALF_UP);
+
+        trade.setAmount(amountTokens.toPlainString());
+        trade.setPriceInUsd(priceUsd);
+        trade.setAmountInUsd(amountInUsd);
+        trade.setPrice(priceMicroCents.toString());
+        trade.setEthValue(ethReceived.toPlainString());
+
+        trade.setTimestamp(LocalDateTime.ofInstant(
+                Instant.ofEpochSecond(event.timestamp.longValue()), ZoneId.of("UTC")));
+        trade.setBuyerOrSeller(event.seller);
+
+        logger.info("SELL PERFECT: {} → {} tokens @ ${} | RECEIVED {} ETH = ${}",
+                artistId,
+                amountTokens.stripTrailingZeros().toPlainString(),
+                priceUsd.stripTrailingZeros().toPlainString(),
+                ethReceived.stripTrailingZeros().toPlainString(),
+                amountInUsd.stripTrailingZeros().toPlainString());
+
+        return trade;
+    }
+}
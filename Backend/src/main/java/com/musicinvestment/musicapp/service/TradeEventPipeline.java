@@ -0,0 +1,369 @@
+package com.musicinvestment.musicapp.service;
+
+import com.musicinvestment.musicapp.exception.PartialInsertException;
+import com.musicinvestment.musicapp.model.Trade;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+/**
+ * Live trade events from the log poller go through enrich -> persist -> candles -> fan-out, each
+ * stage on its own thread behind a bounded queue. Decoding and dedup happen in {@link #submit} on
+ * the poller thread; when a queue is full the stage feeding it blocks, so a burst slows the poller
+ * down instead of growing memory. Persisting is batched: whatever has queued up while the previous
+ * batch was written goes to the database in one transaction, retried with backoff when it fails.
+ * The pipeline keeps the block of every trade that is not stored yet; the log poller moves block
+ * cursors only up to the block below the lowest of them, so a restart replays anything lost. A trade
+ * that fails is parked and re-queued by a periodic retry sweep, holding back only its own block;
+ * after the configured number of sweeps it is abandoned and the cursors move on.
+ */
+@Service
+public class TradeEventPipeline {
+
+    private static final Logger logger = LoggerFactory.getLogger(TradeEventPipeline.class);
+
+    // A deduplicated event waiting for the ETH/USD price it is valued at
+    private record PendingTrade(String txHash, Function<BigInteger, Trade> toTrade) {}
+
+    private static final long MAX_PERSIST_BACKOFF_MS = 30_000;
+
+    private final TradeDedupService tradeDedupService;
+    private final EthUsdPriceService ethUsdPriceService;
+    private final CandleDataService candleDataService;
+    private final ArtistCacheService artistCacheService;
+    private final TradeVolumeService tradeVolumeService;
+    private final int persistAttempts;
+    private final long persistRetryBackoffMs;
+    private final long shutdownTimeoutMs;
+    private final int maxRetrySweeps;
+
+    private final Stage<PendingTrade> enrichStage;
+    private final Stage<Trade> persistStage;
+    private final Stage<Trade> candleStage;
+    private final Stage<Trade> fanOutStage;
+    private volatile Consumer<List<Trade>> fanOut = trades -> { };
+
+    // txHash -> block of each submitted trade not stored yet, and how many of them sit in each block
+    private final Map<String, Long> unpersistedByTxHash = new HashMap<>();
+    private final TreeMap<Long, Integer> unpersistedBlocks = new TreeMap<>();
+    // Failed trades waiting for the next retry sweep, and how many sweeps each has been through
+    private final Queue<PendingTrade> parked = new ConcurrentLinkedQueue<>();
+    private final Map<String, Integer> retrySweeps = new ConcurrentHashMap<>();
+
+    public TradeEventPipeline(
+            TradeDedupService tradeDedupService,
+            EthUsdPriceService ethUsdPriceService,
+            CandleDataService candleDataService,
+            ArtistCacheService artistCacheService,
+            TradeVolumeService tradeVolumeService,
+            MeterRegistry meterRegistry,
+            @Value("${trades.pipeline.queue-capacity:1000}") int queueCapacity,
+            @Value("${trades.pipeline.batch-size:200}") int batchSize,
+            @Value("${trades.pipeline.persist-attempts:5}") int persistAttempts,
+            @Value("${trades.pipeline.persist-retry-backoff-ms:500}") long persistRetryBackoffMs,
+            @Value("${trades.pipeline.shutdown-timeout-ms:10000}") long shutdownTimeoutMs,
+            @Value("${trades.pipeline.max-retry-sweeps:10}") int maxRetrySweeps) {
+        this.tradeDedupService = tradeDedupService;
+        this.ethUsdPriceService = ethUsdPriceService;
+        this.candleDataService = candleDataService;
+        this.artistCacheService = artistCacheService;
+        this.tradeVolumeService = tradeVolumeService;
+        this.persistAttempts = Math.max(1, persistAttempts);
+        this.persistRetryBackoffMs = Math.max(1, persistRetryBackoffMs);
+        this.shutdownTimeoutMs = shutdownTimeoutMs;
+        this.maxRetrySweeps = Math.max(1, maxRetrySweeps);
+        this.fanOutStage = new Stage<>("fanout", queueCapacity, batchSize, this::fanOut, meterRegistry);
+        this.candleStage = new Stage<>("candles", queueCapacity, batchSize, this::updateCandles, meterRegistry);
+        this.persistStage = new Stage<>("persist", queueCapacity, batchSize, this::persist, meterRegistry);
+        this.enrichStage = new Stage<>("enrich", queueCapacity, batchSize, this::enrich, meterRegistry);
+        logger.info("Trade pipeline configured: queueCapacity={}, batchSize={}, persistAttempts={}",
+                queueCapacity, batchSize, this.persistAttempts);
+    }
+
+    // Receives each persisted batch after its candles are updated: websocket pushes and cache upkeep
+    public void setFanOut(Consumer<List<Trade>> fanOut) {
+        this.fanOut = fanOut;
+    }
+
+    /**
+     * Queues a decoded trade event unless its tx hash was already seen. {@code toTrade} builds the
+     * row from the ETH/USD price; it runs on the enrich stage. Blocks while the pipeline is full.
+     * Returns false for a duplicate or when the event could not be queued.
+     */
+    public boolean submit(String txHash, BigInteger block, Function<BigInteger, Trade> toTrade) {
+        if (!tradeDedupService.markSeen(txHash)) {
+            logger.info("Skipping already processed trade event for txHash: {}", txHash);
+            return false;
+        }
+        trackUnpersisted(txHash, block.longValueExact());
+        PendingTrade event = new PendingTrade(txHash, toTrade);
+        if (!enrichStage.put(event)) {
+            park(event);
+            return false;
+        }
+        return true;
+    }
+
+    // Block cursors may move up to one below this; Long.MAX_VALUE when every submitted trade is stored
+    public synchronized long lowestUnpersistedBlock() {
+        return unpersistedBlocks.isEmpty() ? Long.MAX_VALUE : unpersistedBlocks.firstKey();
+    }
+
+    // Re-queues parked trades; one that has failed every sweep is abandoned so the cursors can move on
+    @Scheduled(fixedDelayString = "${trades.pipeline.retry-sweep-ms:60000}")
+    public void retryParked() {
+        for (int i = parked.size(); i > 0; i--) {
+            PendingTrade event = parked.poll();
+            if (event == null) {
+                return;
+            }
+            int sweeps = retrySweeps.merge(event.txHash(), 1, Integer::sum);
+            if (sweeps > maxRetrySweeps) {
+                abandon(event.txHash());
+                continue;
+            }
+            tradeDedupService.markSeen(event.txHash()); // a failed insert may have forgotten it
+            if (!enrichStage.put(event)) {
+                parked.add(event);
+                return;
+            }
+        }
+    }
+
+    // Stops intake, then lets every stage drain in order so queued trades still reach the database
+    @PreDestroy
+    public void shutdown() {
+        long deadline = System.currentTimeMillis() + shutdownTimeoutMs;
+        for (Stage<?> stage : List.of(enrichStage, persistStage, candleStage, fanOutStage)) {
+            stage.drainAndStop(Math.max(0, deadline - System.currentTimeMillis()));
+        }
+    }
+
+    private void enrich(List<PendingTrade> pending) {
+        BigInteger ethUsdPrice;
+        try {
+            ethUsdPrice = ethUsdPriceService.getEthUsdPrice();
+        } catch (RuntimeException e) {
+            pending.forEach(this::park);
+            logger.error("Could not price {} trades, parked for retry: {}", pending.size(), e.getMessage(), e);
+            return;
+        }
+        for (PendingTrade event : pending) {
+            try {
+                if (!persistStage.put(event.toTrade().apply(ethUsdPrice))) {
+                    park(event);
+                }
+            } catch (RuntimeException e) {
+                park(event);
+                logger.error("Could not build trade for txHash {}: {}", event.txHash(), e.getMessage(), e);
+            }
+        }
+    }
+
+    private void persist(List<Trade> trades) {
+        List<Trade> inserted = new ArrayList<>(trades.size());
+        List<Trade> failed = insertWithRetry(trades, inserted);
+        if (!failed.isEmpty()) {
+            for (Trade trade : failed) {
+                trade.setId(null);
+                park(new PendingTrade(trade.getTxHash(), ethUsdPrice -> trade));
+            }
+            logger.error("Parked {} trades for retry; block cursors stay below block {} until they are stored",
+                    failed.size(), lowestUnpersistedBlock());
+        }
+        // Trades that were already stored count as persisted too
+        Set<String> failedHashes = new HashSet<>();
+        failed.forEach(trade -> failedHashes.add(trade.getTxHash()));
+        for (Trade trade : trades) {
+            if (!failedHashes.contains(trade.getTxHash())) {
+                releaseUnpersisted(trade.getTxHash());
+            }
+        }
+        Set<String> artists = new LinkedHashSet<>();
+        for (Trade trade : inserted) {
+            logger.info("Saved {} event for artistId {}: amount={}, price={}, txHash={}, amountInUsd={}, priceInUsd={}",
+                trade.getEventType(), trade.getArtistId(), trade.getAmount(), trade.getPrice(), trade.getTxHash(),
+                trade.getAmountInUsd(), trade.getPriceInUsd());
+            artists.add(trade.getArtistId());
+        }
+        tradeVolumeService.recordAll(inserted);
+        artists.forEach(artistCacheService::invalidateArtist);
+        inserted.forEach(candleStage::put);
+    }
+
+    // Adds every trade this call stored to inserted, across attempts; returns the ones never stored
+    private List<Trade> insertWithRetry(List<Trade> trades, List<Trade> inserted) {
+        List<Trade> remaining = new ArrayList<>(trades);
+        long backoffMs = persistRetryBackoffMs;
+        for (int attempt = 1; ; attempt++) {
+            try {
+                inserted.addAll(tradeDedupService.insertAllIfAbsent(new ArrayList<>(remaining)));
+                return List.of();
+            } catch (RuntimeException e) {
+                // Rows the row-by-row fallback stored before failing would come back as duplicates next time
+                if (e instanceof PartialInsertException partial) {
+                    inserted.addAll(partial.getInserted());
+                    remaining.removeAll(partial.getInserted());
+                }
+                if (attempt >= persistAttempts) {
+                    logger.error("Failed to persist {} trades after {} attempts: {}", remaining.size(), attempt, e.getMessage(), e);
+                    return remaining;
+                }
+                logger.warn("Failed to persist {} trades (attempt {}/{}), retrying in {}ms: {}",
+                        remaining.size(), attempt, persistAttempts, backoffMs, e.getMessage());
+            }
+            try {
+                Thread.sleep(backoffMs);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return remaining;
+            }
+            backoffMs = Math.min(backoffMs * 2, MAX_PERSIST_BACKOFF_MS);
+            remaining.forEach(trade -> trade.setId(null)); // ids assigned inside the rolled-back attempt are not real
+        }
+    }
+
+    // Still tracked as unpersisted, so the block cursors stay below its block until a sweep stores it
+    private void park(PendingTrade event) {
+        parked.add(event);
+    }
+
+    // Lets a redelivery retry the hash and releases its block; unless re-ingested, the trade is lost
+    private void abandon(String txHash) {
+        tradeDedupService.forget(txHash);
+        Long block = releaseUnpersisted(txHash);
+        logger.error("Abandoned trade {} in block {} after {} retry sweeps; it is not stored and block cursors move past it",
+                txHash, block, maxRetrySweeps);
+    }
+
+    private synchronized void trackUnpersisted(String txHash, long block) {
+        unpersistedByTxHash.put(txHash, block);
+        unpersistedBlocks.merge(block, 1, Integer::sum);
+    }
+
+    private synchronized Long releaseUnpersisted(String txHash) {
+        retrySweeps.remove(txHash);
+        Long block = unpersistedByTxHash.remove(txHash);
+        if (block != null) {
+            unpersistedBlocks.computeIfPresent(block, (b, count) -> count > 1 ? count - 1 : null);
+        }
+        return block;
+    }
+
+    private void updateCandles(List<Trade> trades) {
+        for (Trade trade : trades) {
+            try {
+                candleDataService.updateCandlesForTrade(trade);
+            } catch (RuntimeException e) {
+                logger.error("Candle update failed for txHash {}: {}", trade.getTxHash(), e.getMessage(), e);
+            }
+            fanOutStage.put(trade);
+        }
+    }
+
+    private void fanOut(List<Trade> trades) {
+        fanOut.accept(trades);
+    }
+
+    // One worker thread taking batches off a bounded queue
+    private static final class Stage<T> {
+        private final String name;
+        private final BlockingQueue<T> queue;
+        private final int batchSize;
+        private final Consumer<List<T>> worker;
+        private final ExecutorService executor;
+        private volatile boolean stopping;
+
+        private Stage(String name, int capacity, int batchSize, Consumer<List<T>> worker, MeterRegistry meterRegistry) {
+            this.name = name;
+            this.queue = new ArrayBlockingQueue<>(capacity);
+            this.batchSize = Math.max(1, batchSize);
+            this.worker = worker;
+            this.executor = Executors.newSingleThreadExecutor(r -> {
+                Thread t = new Thread(r, "trade-pipeline-" + name);
+                t.setDaemon(true);
+                return t;
+            });
+            meterRegistry.gauge("trades.pipeline.queued", Tags.of("stage", name), queue, BlockingQueue::size);
+            executor.execute(this::run);
+        }
+
+        // Blocks while the queue is full; false if the item was dropped because we are shutting down
+        private boolean put(T item) {
+            if (stopping) {
+                logger.warn("Trade pipeline stage {} is stopped, dropping {}", name, item);
+                return false;
+            }
+            try {
+                queue.put(item);
+                return true;
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                logger.warn("Interrupted while queueing into trade pipeline stage {}, dropping {}", name, item);
+                return false;
+            }
+        }
+
+        private void run() {
+            List<T> batch = new ArrayList<>(batchSize);
+            while (!stopping || !queue.isEmpty()) {
+                try {
+                    T first = queue.poll(200, TimeUnit.MILLISECONDS);
+                    if (first == null) {
+                        continue;
+                    }
+                    batch.add(first);
+                    queue.drainTo(batch, batchSize - 1);
+                    worker.accept(batch);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return;
+                } catch (Exception e) {
+                    // Never let one bad batch stop the stage
+                    logger.error("Trade pipeline stage {} failed on {} items: {}", name, batch.size(), e.getMessage(), e);
+                } finally {
+                    batch.clear();
+                }
+            }
+        }
+
+        private void drainAndStop(long timeoutMs) {
+            stopping = true;
+            executor.shutdown();
+            try {
+                if (!executor.awaitTermination(timeoutMs, TimeUnit.MILLISECONDS)) {
+                    logger.warn("Trade pipeline stage {} did not drain in time, {} items left", name, queue.size());
+                    executor.shutdownNow();
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                executor.shutdownNow();
+            }
+        }
+    }
+}
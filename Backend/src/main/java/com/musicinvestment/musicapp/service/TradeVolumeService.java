@@ -0,0 +1,181 @@
+package com.musicinvestment.musicapp.service;
+
+import com.musicinvestment.musicapp.model.Trade;
+import com.musicinvestment.musicapp.repository.TradeRepository;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Rolling 24h USD trade volume per artist and per trader address, kept in memory so lookups never
+ * touch the database. Each key has a ring of time buckets holding micro-USD sums plus a running
+ * total; buckets that fall out of the window are subtracted as time moves on. The rings are rebuilt
+ * from the last 24h of trades at startup and updated by whoever inserts trades.
+ */
+@Service
+public class TradeVolumeService {
+
+    private static final Logger logger = LoggerFactory.getLogger(TradeVolumeService.class);
+    private static final long WINDOW_SECONDS = TimeUnit.HOURS.toSeconds(24);
+    private static final int MICRO_USD_SCALE = 6;
+
+    private final TradeRepository tradeRepository;
+    private final long artistBucketSeconds;
+    private final long userBucketSeconds;
+
+    private final Map<String, VolumeWindow> byArtist = new ConcurrentHashMap<>();
+    // Keyed by lowercased address
+    private final Map<String, VolumeWindow> byUser = new ConcurrentHashMap<>();
+
+    public TradeVolumeService(
+            TradeRepository tradeRepository,
+            @Value("${volume.window.artist-bucket-seconds:60}") long artistBucketSeconds,
+            @Value("${volume.window.user-bucket-seconds:300}") long userBucketSeconds) {
+        this.tradeRepository = tradeRepository;
+        this.artistBucketSeconds = Math.max(1, artistBucketSeconds);
+        this.userBucketSeconds = Math.max(1, userBucketSeconds);
+    }
+
+    // Runs before the trade pipeline and the backfill exist (they depend on this bean), so nothing is counted twice
+    @PostConstruct
+    public void rebuild() {
+        LocalDateTime cutoff = LocalDateTime.now(ZoneId.of("UTC")).minusHours(24);
+        List<Object[]> rows = tradeRepository.findVolumeRowsSince(cutoff);
+        long now = nowSeconds();
+        for (Object[] row : rows) {
+            add((String) row[0], (String) row[1], (BigDecimal) row[2], (LocalDateTime) row[3], now);
+        }
+        logger.info("Rebuilt 24h volume windows from {} trades: {} artists, {} traders", rows.size(), byArtist.size(), byUser.size());
+    }
+
+    public void record(Trade trade) {
+        add(trade.getArtistId(), trade.getBuyerOrSeller(), trade.getAmountInUsd(), trade.getTimestamp(), nowSeconds());
+    }
+
+    public void recordAll(Collection<Trade> trades) {
+        trades.forEach(this::record);
+    }
+
+    public BigDecimal artistVolume24hUsd(String artistId) {
+        return volume(byArtist, artistId);
+    }
+
+    public BigDecimal userVolume24hUsd(String userAddress) {
+        return userAddress != null ? volume(byUser, userAddress.toLowerCase()) : BigDecimal.ZERO;
+    }
+
+    // Traders come and go; their windows are dropped once nothing is left in them
+    @Scheduled(fixedDelayString = "${volume.window.cleanup-interval-ms:600000}")
+    public void dropIdleWindows() {
+        long now = nowSeconds();
+        byUser.values().removeIf(window -> window.retireIfEmpty(now));
+        byArtist.values().removeIf(window -> window.retireIfEmpty(now));
+    }
+
+    private BigDecimal volume(Map<String, VolumeWindow> windows, String key) {
+        VolumeWindow window = key != null ? windows.get(key) : null;
+        return window != null ? BigDecimal.valueOf(window.total(nowSeconds()), MICRO_USD_SCALE) : BigDecimal.ZERO;
+    }
+
+    private void add(String artistId, String userAddress, BigDecimal amountInUsd, LocalDateTime timestamp, long now) {
+        if (amountInUsd == null || timestamp == null) {
+            return;
+        }
+        long microUsd = amountInUsd.setScale(MICRO_USD_SCALE, RoundingMode.HALF_UP).unscaledValue().longValueExact();
+        long epochSecond = timestamp.toEpochSecond(ZoneOffset.UTC);
+        if (artistId != null) {
+            add(byArtist, artistId, artistBucketSeconds, epochSecond, microUsd, now);
+        }
+        if (userAddress != null) {
+            add(byUser, userAddress.toLowerCase(), userBucketSeconds, epochSecond, microUsd, now);
+        }
+    }
+
+    private void add(Map<String, VolumeWindow> windows, String key, long bucketSeconds, long epochSecond, long microUsd, long now) {
+        while (true) {
+            VolumeWindow window = windows.computeIfAbsent(key, k -> new VolumeWindow(bucketSeconds));
+            if (window.add(epochSecond, microUsd, now)) {
+                return;
+            }
+            // Retired by the cleanup between lookup and add
+            windows.remove(key, window);
+        }
+    }
+
+    private long nowSeconds() {
+        return System.currentTimeMillis() / 1000;
+    }
+
+    // Ring of micro-USD sums; bucket n covers seconds [n * bucketSeconds, (n + 1) * bucketSeconds)
+    private static final class VolumeWindow {
+        private final long bucketSeconds;
+        private final long[] buckets;
+        private long headBucket = Long.MIN_VALUE;
+        private long total;
+        private boolean retired;
+
+        private VolumeWindow(long bucketSeconds) {
+            this.bucketSeconds = bucketSeconds;
+            this.buckets = new long[(int) Math.max(1, WINDOW_SECONDS / bucketSeconds)];
+        }
+
+        // False once retired, so the caller creates a fresh window instead of writing into a dropped one
+        private synchronized boolean add(long epochSecond, long microUsd, long now) {
+            if (retired) {
+                return false;
+            }
+            advance(now / bucketSeconds);
+            // Block timestamps slightly ahead of our clock count in the current bucket
+            long bucket = Math.min(epochSecond / bucketSeconds, headBucket);
+            if (bucket > headBucket - buckets.length) {
+                buckets[Math.floorMod(bucket, buckets.length)] += microUsd;
+                total += microUsd;
+            }
+            return true;
+        }
+
+        private synchronized long total(long now) {
+            advance(now / bucketSeconds);
+            return total;
+        }
+
+        private synchronized boolean retireIfEmpty(long now) {
+            advance(now / bucketSeconds);
+            retired = total == 0;
+            return retired;
+        }
+
+        // Clears the buckets that leave the window when the head moves to {@code bucket}
+        private void advance(long bucket) {
+            if (headBucket != Long.MIN_VALUE && bucket <= headBucket) {
+                return;
+            }
+            if (headBucket == Long.MIN_VALUE || bucket - headBucket >= buckets.length) {
+                Arrays.fill(buckets, 0L);
+                total = 0;
+            } else {
+                for (long b = headBucket + 1; b <= bucket; b++) {
+                    int index = Math.floorMod(b, buckets.length);
+                    total -= buckets[index];
+                    buckets[index] = 0;
+                }
+            }
+            headBucket = bucket;
+        }
+    }
+}
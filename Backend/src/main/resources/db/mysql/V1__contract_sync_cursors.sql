@@ -0,0 +1,7 @@
+-- Per-contract ingestion cursor: every block up to last_processed_block has been ingested
+CREATE TABLE IF NOT EXISTS contract_sync_cursors (
+    contract_address     VARCHAR(42) NOT NULL,
+    last_processed_block BIGINT      NOT NULL,
+    updated_at           DATETIME(6) NOT NULL,
+    PRIMARY KEY (contract_address)
+);
@@ -0,0 +1,13 @@
+-- Keep the first stored row of every tx hash, then enforce uniqueness.
+-- TradeDedupService relies on this constraint as its last line of defence against duplicate trades.
+DELETE t FROM trades t
+JOIN trades kept ON kept.tx_hash = t.tx_hash AND kept.id < t.id;
+
+SET @ddl := IF(
+    (SELECT COUNT(*) FROM information_schema.table_constraints
+     WHERE table_schema = DATABASE() AND table_name = 'trades' AND constraint_name = 'uk_trades_tx_hash') = 0,
+    'ALTER TABLE trades ADD CONSTRAINT uk_trades_tx_hash UNIQUE (tx_hash)',
+    'DO 0');
+PREPARE stmt FROM @ddl;
+EXECUTE stmt;
+DEALLOCATE PREPARE stmt;
@@ -0,0 +1,17 @@
+-- One candle per (artist, timeframe, period): keep the most recently written row of each duplicate set,
+-- then add the unique key the bounded candle queries and the candle engine's upserts rely on.
+-- Artists that had duplicates can be recomputed from trades with POST /api/blockchain/candles/rebuild/{artistId}.
+DELETE c FROM candle_data c
+JOIN candle_data newer
+  ON newer.artist_id = c.artist_id AND newer.timeframe = c.timeframe
+ AND newer.timestamp = c.timestamp AND newer.id > c.id;
+
+SET @ddl := IF(
+    (SELECT COUNT(*) FROM information_schema.table_constraints
+     WHERE table_schema = DATABASE() AND table_name = 'candle_data'
+       AND constraint_name = 'uk_candle_data_artist_timeframe_timestamp') = 0,
+    'ALTER TABLE candle_data ADD CONSTRAINT uk_candle_data_artist_timeframe_timestamp UNIQUE (artist_id, timeframe, timestamp)',
+    'DO 0');
+PREPARE stmt FROM @ddl;
+EXECUTE stmt;
+DEALLOCATE PREPARE stmt;
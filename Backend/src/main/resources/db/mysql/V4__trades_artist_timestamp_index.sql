@@ -0,0 +1,9 @@
+-- Supports the keyset-paginated trade history: WHERE artist_id = ? ORDER BY timestamp, id
+SET @ddl := IF(
+    (SELECT COUNT(*) FROM information_schema.statistics
+     WHERE table_schema = DATABASE() AND table_name = 'trades' AND index_name = 'idx_trades_artist_timestamp') = 0,
+    'CREATE INDEX idx_trades_artist_timestamp ON trades (artist_id, timestamp)',
+    'DO 0');
+PREPARE stmt FROM @ddl;
+EXECUTE stmt;
+DEALLOCATE PREPARE stmt;
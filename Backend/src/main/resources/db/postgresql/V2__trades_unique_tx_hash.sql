@@ -0,0 +1,12 @@
+-- Keep the first stored row of every tx hash, then enforce uniqueness.
+-- TradeDedupService relies on this constraint as its last line of defence against duplicate trades.
+DELETE FROM trades t
+USING trades kept
+WHERE kept.tx_hash = t.tx_hash AND kept.id < t.id;
+
+DO $$
+BEGIN
+    IF NOT EXISTS (SELECT 1 FROM pg_constraint WHERE conname = 'uk_trades_tx_hash') THEN
+        ALTER TABLE trades ADD CONSTRAINT uk_trades_tx_hash UNIQUE (tx_hash);
+    END IF;
+END $$;
@@ -0,0 +1,15 @@
+-- One candle per (artist, timeframe, period): keep the most recently written row of each duplicate set,
+-- then add the unique key the bounded candle queries and the candle engine's upserts rely on.
+-- Artists that had duplicates can be recomputed from trades with POST /api/blockchain/candles/rebuild/{artistId}.
+DELETE FROM candle_data c
+USING candle_data newer
+WHERE newer.artist_id = c.artist_id AND newer.timeframe = c.timeframe
+  AND newer.timestamp = c.timestamp AND newer.id > c.id;
+
+DO $$
+BEGIN
+    IF NOT EXISTS (SELECT 1 FROM pg_constraint WHERE conname = 'uk_candle_data_artist_timeframe_timestamp') THEN
+        ALTER TABLE candle_data ADD CONSTRAINT uk_candle_data_artist_timeframe_timestamp
+            UNIQUE (artist_id, timeframe, timestamp);
+    END IF;
+END $$;
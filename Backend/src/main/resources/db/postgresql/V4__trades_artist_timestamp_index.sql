@@ -0,0 +1,2 @@
+-- Supports the keyset-paginated trade history: WHERE artist_id = ? ORDER BY timestamp, id
+CREATE INDEX IF NOT EXISTS idx_trades_artist_timestamp ON trades (artist_id, timestamp);
@@ -0,0 +1,292 @@
+package com.musicinvestment.musicapp.config;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import okhttp3.OkHttpClient;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.web3j.protocol.core.Request;
+import org.web3j.protocol.core.methods.response.EthBlockNumber;
+import org.web3j.protocol.core.methods.response.EthChainId;
+import org.web3j.protocol.core.methods.response.EthLog;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * Drives RpcEndpointPool against two local stub JSON-RPC servers. Health checks are not scheduled
+ * (interval 0); tests that need block heights or latencies call checkHealth() themselves.
+ */
+class RpcEndpointPoolTest {
+
+    private static final long OPEN_MS = 200;
+
+    private final OkHttpClient httpClient = new OkHttpClient();
+    private StubNode primary;
+    private StubNode secondary;
+    private RpcEndpointPool pool;
+
+    @BeforeEach
+    void startNodes() throws IOException {
+        primary = new StubNode(100);
+        secondary = new StubNode(100);
+    }
+
+    @AfterEach
+    void stopNodes() throws IOException {
+        if (pool != null) {
+            pool.close();
+        }
+        primary.stop();
+        secondary.stop();
+    }
+
+    @Test
+    void failsOverToNextEndpointOnTransportError() throws Exception {
+        pool = pool(3, 10);
+        primary.down = true;
+
+        assertEquals(1L, chainId().getChainId().longValue());
+        assertEquals(1, primary.calls("eth_chainId"));
+        assertEquals(1, secondary.calls("eth_chainId"));
+    }
+
+    @Test
+    void throwsWhenEveryEndpointFails() {
+        pool = pool(3, 10);
+        primary.down = true;
+        secondary.down = true;
+
+        assertThrows(IOException.class, this::chainId);
+        assertEquals(1, primary.calls("eth_chainId"));
+        assertEquals(1, secondary.calls("eth_chainId"));
+    }
+
+    @Test
+    void circuitOpensAfterThresholdAndClosesOnSuccessfulTrial() throws Exception {
+        pool = pool(2, 10);
+        primary.down = true;
+        chainId();
+        chainId();
+        assertEquals(2, primary.calls("eth_chainId"));
+
+        // Open: the primary is skipped entirely
+        chainId();
+        assertEquals(2, primary.calls("eth_chainId"));
+        assertEquals(3, secondary.calls("eth_chainId"));
+
+        primary.down = false;
+        Thread.sleep(OPEN_MS + 50);
+
+        // Half-open trial succeeds, closing the circuit
+        chainId();
+        chainId();
+        assertEquals(4, primary.calls("eth_chainId"));
+        assertEquals(3, secondary.calls("eth_chainId"));
+    }
+
+    @Test
+    void failedTrialReopensCircuit() throws Exception {
+        pool = pool(1, 10);
+        primary.down = true;
+        chainId();
+        assertEquals(1, primary.calls("eth_chainId"));
+
+        Thread.sleep(OPEN_MS + 50);
+        chainId();
+        assertEquals(2, primary.calls("eth_chainId"));
+
+        chainId();
+        assertEquals(2, primary.calls("eth_chainId"));
+        assertEquals(3, secondary.calls("eth_chainId"));
+    }
+
+    @Test
+    void halfOpenLetsOnlyOneTrialThrough() throws Exception {
+        pool = pool(1, 10);
+        primary.down = true;
+        chainId();
+        primary.down = false;
+        primary.gate = new CountDownLatch(1);
+        Thread.sleep(OPEN_MS + 50);
+
+        CompletableFuture<EthChainId> trial = chainIdAsync();
+        List<CompletableFuture<EthChainId>> others = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            others.add(chainIdAsync());
+        }
+        // Blocking calls are held back from the recovering endpoint too
+        chainId();
+        for (CompletableFuture<EthChainId> other : others) {
+            other.get(5, TimeUnit.SECONDS);
+        }
+        assertEquals(7, secondary.calls("eth_chainId"));
+
+        primary.gate.countDown();
+        trial.get(5, TimeUnit.SECONDS);
+        assertEquals(2, primary.calls("eth_chainId"));
+    }
+
+    @Test
+    void laggingEndpointIsSkipped() throws Exception {
+        pool = pool(3, 10);
+        primary.blockNumber = 100;
+        secondary.blockNumber = 200;
+        pool.checkHealth().get(5, TimeUnit.SECONDS);
+
+        chainId();
+        chainId();
+        assertEquals(0, primary.calls("eth_chainId"));
+        assertEquals(2, secondary.calls("eth_chainId"));
+
+        // Caught up again: back within maxBlockLag
+        primary.blockNumber = 195;
+        secondary.delayMs = 200;
+        pool.checkHealth().get(5, TimeUnit.SECONDS);
+        chainId();
+        assertEquals(1, primary.calls("eth_chainId"));
+    }
+
+    @Test
+    void logPollingStaysPinnedUntilItsCircuitOpens() throws Exception {
+        pool = pool(1, 10);
+        primary.delayMs = 50;
+        pool.checkHealth().get(5, TimeUnit.SECONDS);
+
+        // Reads follow latency, log polling stays on the pinned (first) endpoint
+        chainId();
+        assertEquals(0, primary.calls("eth_chainId"));
+        getLogs();
+        assertEquals(1, primary.calls("eth_getLogs"));
+
+        // The pinned endpoint fails: this poll fails over and opens its circuit
+        primary.down = true;
+        getLogs();
+        assertEquals(2, primary.calls("eth_getLogs"));
+        assertEquals(1, secondary.calls("eth_getLogs"));
+
+        // While the circuit is open the pin moves
+        int headChecks = secondary.calls("eth_blockNumber");
+        blockNumber();
+        assertEquals(headChecks + 1, secondary.calls("eth_blockNumber"));
+
+        // Recovery of the old endpoint does not move it back
+        primary.down = false;
+        primary.delayMs = 0;
+        Thread.sleep(OPEN_MS + 50);
+        getLogs();
+        assertEquals(2, primary.calls("eth_getLogs"));
+        assertEquals(2, secondary.calls("eth_getLogs"));
+    }
+
+    private RpcEndpointPool pool(int failureThreshold, long maxBlockLag) {
+        return new RpcEndpointPool(List.of(primary.url(), secondary.url()), httpClient,
+                failureThreshold, OPEN_MS, maxBlockLag, 0, null);
+    }
+
+    private EthChainId chainId() throws IOException {
+        return new Request<>("eth_chainId", List.of(), pool, EthChainId.class).send();
+    }
+
+    private CompletableFuture<EthChainId> chainIdAsync() {
+        return new Request<>("eth_chainId", List.of(), pool, EthChainId.class).sendAsync();
+    }
+
+    private EthLog getLogs() throws IOException {
+        return new Request<>("eth_getLogs", List.of(), pool, EthLog.class).send();
+    }
+
+    private EthBlockNumber blockNumber() throws IOException {
+        return new Request<>("eth_blockNumber", List.of(), pool, EthBlockNumber.class).send();
+    }
+
+    /**
+     * Minimal JSON-RPC node: answers eth_blockNumber with a fixed height, eth_getLogs with no logs
+     * and everything else with chain id 1. Can be taken down (HTTP 503), slowed or held on a gate.
+     */
+    private static final class StubNode {
+
+        private static final ObjectMapper MAPPER = new ObjectMapper();
+
+        private final HttpServer server;
+        private final Map<String, AtomicInteger> calls = new ConcurrentHashMap<>();
+        private volatile boolean down;
+        private volatile long blockNumber;
+        private volatile long delayMs;
+        private volatile CountDownLatch gate;
+
+        private StubNode(long blockNumber) throws IOException {
+            this.blockNumber = blockNumber;
+            server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+            server.setExecutor(Executors.newCachedThreadPool());
+            server.createContext("/", this::handle);
+            server.start();
+        }
+
+        private String url() {
+            return "http://127.0.0.1:" + server.getAddress().getPort() + "/";
+        }
+
+        private int calls(String method) {
+            AtomicInteger count = calls.get(method);
+            return count != null ? count.get() : 0;
+        }
+
+        private void stop() {
+            server.stop(0);
+        }
+
+        private void handle(HttpExchange exchange) throws IOException {
+            JsonNode request = MAPPER.readTree(exchange.getRequestBody());
+            String method = request.path("method").asText();
+            calls.computeIfAbsent(method, m -> new AtomicInteger()).incrementAndGet();
+            try {
+                if (delayMs > 0) {
+                    Thread.sleep(delayMs);
+                }
+                CountDownLatch currentGate = gate;
+                if (currentGate != null && !"eth_blockNumber".equals(method)) {
+                    currentGate.await(5, TimeUnit.SECONDS);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+
+            if (down) {
+                reply(exchange, 503, "unavailable");
+                return;
+            }
+            Object result = switch (method) {
+                case "eth_blockNumber" -> "0x" + Long.toHexString(blockNumber);
+                case "eth_getLogs" -> List.of();
+                default -> "0x1";
+            };
+            reply(exchange, 200, MAPPER.writeValueAsString(
+                    Map.of("jsonrpc", "2.0", "id", request.path("id").asLong(), "result", result)));
+        }
+
+        private void reply(HttpExchange exchange, int status, String body) throws IOException {
+            byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().set("Content-Type", "application/json");
+            exchange.sendResponseHeaders(status, bytes.length);
+            exchange.getResponseBody().write(bytes);
+            exchange.close();
+        }
+    }
+}